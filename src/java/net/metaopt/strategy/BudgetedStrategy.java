@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2017 Paulius Danenas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.metaopt.strategy;
+
+import net.metaopt.strategy.StateResult.ProcessState;
+import net.metaopt.swarm.ConfigurationException;
+import net.metaopt.swarm.Population;
+
+/**
+ * The population is evolved until one of the configured budgets is exhausted: a maximum number of iterations, a
+ * wall-clock time, a number of fitness evaluations or a stagnation window (iterations without improvement).
+ * Budgets set to 0 are not checked. The best fitness and solution are updated after every iteration, so they are
+ * available at any time (e.g. to observers or after an abort)
+ */
+public class BudgetedStrategy extends OptimizationStrategy {
+
+    public enum StopReason {
+        MAX_ITERATIONS, TIME_BUDGET, EVALUATION_BUDGET, STAGNATION, ABORTED
+    }
+
+    /* Maximum number of iterations */
+    protected int maxIterations;
+    /* Wall-clock budget in milliseconds */
+    protected long timeBudget;
+    /* Maximum number of fitness evaluations */
+    protected int evaluationBudget;
+    /* Number of iterations without improvement after which the search is terminated */
+    protected int stagnationWindow;
+    /* Why the last optimization has been stopped */
+    protected StopReason stopReason;
+
+    public BudgetedStrategy() {
+    }
+
+    public BudgetedStrategy(Population population) {
+        this.setPopulation(population);
+    }
+
+    @Override
+    public void optimize() throws ConfigurationException {
+        if (population == null)
+            throw new ConfigurationException("Population was not initialized");
+        if (maxIterations <= 0 && timeBudget <= 0 && evaluationBudget <= 0 && stagnationWindow <= 0)
+            throw new ConfigurationException("No budget is set, the optimization would never stop");
+
+        fitness = population.getFitnessFunction();
+        long start = System.currentTimeMillis();
+        long slowestIteration = 0;
+        int evaluations = population.getNumberOfEvaluations();
+        int stagnation = 0;
+
+        totalIterations = 0;
+        bestFitness = Double.NaN;
+        bestSolution = null;
+        stopReason = null;
+        notifyStarted();
+
+        while (stopReason == null) {
+            long iterationStart = System.currentTimeMillis();
+            population.evolve();
+            totalIterations++;
+            slowestIteration = Math.max(slowestIteration, System.currentTimeMillis() - iterationStart);
+
+            // Keep the best result so far
+            double currBest = population.getBestFitness();
+            if (Double.isNaN(bestFitness) || fitness.isBetterThan(bestFitness, currBest)) {
+                bestFitness = currBest;
+                bestSolution = population.getBestPosition() == null ? null : population.getBestPosition().clone();
+                stagnation = 0;
+            } else
+                stagnation++;
+
+            StateResult state = new StateResult(population, bestFitness, bestSolution, ProcessState.EXECUTING);
+            state.currentIteration = totalIterations;
+            // The total is only known in advance if the iterations are limited
+            state.totalIterations = (maxIterations > 0 ? maxIterations : totalIterations);
+            setChanged();
+            notifyObservers(state);
+
+            // Check the budgets, stop early if the next iteration is not expected to finish in time
+            long elapsed = System.currentTimeMillis() - start;
+            if (stopFlag)
+                stopReason = StopReason.ABORTED;
+            else if (maxIterations > 0 && totalIterations >= maxIterations)
+                stopReason = StopReason.MAX_ITERATIONS;
+            else if (timeBudget > 0 && elapsed + slowestIteration > timeBudget)
+                stopReason = StopReason.TIME_BUDGET;
+            else if (evaluationBudget > 0 && population.getNumberOfEvaluations() - evaluations >= evaluationBudget)
+                stopReason = StopReason.EVALUATION_BUDGET;
+            else if (stagnationWindow > 0 && stagnation >= stagnationWindow)
+                stopReason = StopReason.STAGNATION;
+        }
+
+        StateResult state = new StateResult(population, bestFitness, bestSolution, ProcessState.FINISHED);
+        state.totalIterations = totalIterations;
+        setChanged();
+        notifyObservers(state);
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    public long getTimeBudget() {
+        return timeBudget;
+    }
+
+    /**
+     * Set the wall-clock budget. No iteration is started that is not expected to finish within the budget (based
+     * on the slowest iteration so far), so the budget is a soft limit: an iteration slower than all before may exceed
+     * it. Evaluations that are still running when the optimization stops are up to the population (see
+     * AsyncSwarm.cancel())
+     * @param timeBudget Budget in milliseconds
+     */
+    public void setTimeBudget(long timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+
+    public int getEvaluationBudget() {
+        return evaluationBudget;
+    }
+
+    /**
+     * Set the maximum number of fitness evaluations. The last iteration may exceed the budget by up to the size of
+     * the population
+     * @param evaluationBudget Maximum number of evaluations
+     */
+    public void setEvaluationBudget(int evaluationBudget) {
+        this.evaluationBudget = evaluationBudget;
+    }
+
+    public int getStagnationWindow() {
+        return stagnationWindow;
+    }
+
+    /**
+     * Set the number of iterations without improvement after which the search is terminated
+     * @param stagnationWindow The number of iterations
+     */
+    public void setStagnationWindow(int stagnationWindow) {
+        this.stagnationWindow = stagnationWindow;
+    }
+
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+}
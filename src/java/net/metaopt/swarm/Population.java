@@ -31,6 +31,8 @@ public interface Population extends Cloneable {
     
     double[] getBestPosition();
 
+    int getNumberOfEvaluations();
+
     void setFitnessFunction(FitnessFunction fitnessFunction);
     
     Individual getSampleIndividual();
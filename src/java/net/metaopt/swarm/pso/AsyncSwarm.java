@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2017 Paulius Danenas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.metaopt.swarm.pso;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+import net.metaopt.swarm.FitnessFunction;
+import net.metaopt.swarm.pso.evaluation.EvaluationStatistics;
+
+/**
+ * Asynchronous (steady-state) swarm
+ * A particle is updated with the current global best and dispatched again as soon as its own evaluation completes,
+ * instead of waiting for the slowest particle of an iteration. One evolve() call completes as many evaluations as
+ * there are particles, so it corresponds to an iteration of the synchronous swarm. The fitness function is called
+ * with a copy of the particle's position; all other state is only changed by the thread calling evolve()
+ * If a canonicalizer is set, a particle dispatched at the canonical position of a running evaluation is not submitted
+ * again but shares the result of that evaluation
+ * The evaluations always run on the executor given to the constructor, the swarm's evaluation strategy (and thus its
+ * timeout) is not used. If an evaluation fails, its particles are dispatched again by the next evolve() call
+ */
+public class AsyncSwarm extends Swarm {
+
+    /** Evaluations in completion order */
+    protected CompletionService<Double> completionService;
+    /** Fitness of the last evaluation of each particle */
+    protected double fitness[];
+    /** Number of evaluations running */
+    protected int inFlight;
+    /** Particle evaluated by each running evaluation */
+    protected Map<Future<Double>, Integer> running;
+    /** Particles that are being evaluated or waiting for the evaluation of their canonical position */
+    protected boolean pending[];
+    /** Particles waiting for the running evaluation of their canonical position (the evaluated particle excluded) */
+    protected Map<List<Double>, List<Integer>> sharing;
+    /** Canonical position each particle has been dispatched with */
+    protected List<List<Double>> dispatchedKey;
+    /** Latency statistics of the evaluations */
+    protected EvaluationStatistics statistics;
+
+    /**
+     * Create an asynchronous swarm
+     * @param numberOfParticles : Number of particles in this swarm (should be greater than 0)
+     * @param sampleParticle : A particle that is a sample to build all other particles
+     * @param fitnessFunction : Fitness function used to evaluate each particle
+     * @param executor : Executor running the evaluations
+     */
+    public AsyncSwarm(int numberOfParticles, Particle sampleParticle, FitnessFunction fitnessFunction, Executor executor) {
+        super(numberOfParticles, sampleParticle, fitnessFunction);
+        if (executor == null)
+            throw new RuntimeException("Executor can't be null!");
+        completionService = new ExecutorCompletionService<>(executor);
+        statistics = new EvaluationStatistics();
+    }
+
+    /**
+     * Complete as many evaluations as there are particles. Every completed particle updates the global best,
+     * is moved and dispatched again
+     */
+    @Override
+    public void evolve() {
+        if (particles == null)
+            init();
+        if (fitnessFunction == null)
+            throw new RuntimeException("Fitness function is not set");
+
+        if (Double.isNaN(bestFitness)) {
+            bestFitness = (fitnessFunction.isMaximize() ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY);
+            bestParticleIndex = -1;
+        }
+
+        // Start evaluating every particle that is not running yet
+        for (int i = 0; i < particles.length; i++)
+            if (!pending[i])
+                dispatch(i);
+
+        for (int n = 0; n < particles.length;) {
+            for (int i : complete()) {
+                // Move the particle using the current bests and evaluate it again
+                particleUpdate.begin(this);
+                particleUpdate.update(this, particles[i]);
+                particles[i].applyConstraints(minPosition, maxPosition, minVelocity, maxVelocity, constraintHandler);
+                particleUpdate.end(this);
+
+                dispatch(i);
+                n++;
+            }
+        }
+
+        variablesUpdate.update(this);
+    }
+
+    /**
+     * Wait for all running evaluations and record their fitness, without dispatching the particles again
+     */
+    public void drain() {
+        while (inFlight > 0)
+            complete();
+    }
+
+    /**
+     * Abandon all running evaluations without recording their fitness, e.g. when the time budget is exhausted
+     * The evaluations are interrupted, a fitness function ignoring interrupts keeps running in the background until it
+     * finishes. The abandoned particles are dispatched again by the next evolve() call
+     */
+    public void cancel() {
+        // The cancelled evaluations are queued as completed later on, complete() skips them
+        for (Future<Double> future : running.keySet())
+            future.cancel(true);
+
+        running.clear();
+        sharing.clear();
+        Arrays.fill(pending, false);
+        inFlight = 0;
+    }
+
+    @Override
+    public void init() {
+        if (inFlight > 0)
+            throw new RuntimeException("Can't initialize a swarm while particles are being evaluated");
+        super.init();
+        fitness = new double[particles.length];
+        running = new HashMap<>();
+        pending = new boolean[particles.length];
+        sharing = new HashMap<>();
+        dispatchedKey = new ArrayList<>(Collections.nCopies(particles.length, null));
+    }
+
+    /**
+     * Submit the evaluation of a particle at its current position
+     * @param i : Index of the particle
+     */
+    protected void dispatch(int i) {
+        pending[i] = true;
+        List<Double> key = (canonicalizer != null ? getCanonicalKey(particles[i]) : null);
+        dispatchedKey.set(i, key);
+        if (key != null) {
+            List<Integer> waiting = sharing.get(key);
+            if (waiting != null) {
+                waiting.add(i);
+                return;
+            }
+            sharing.put(key, new ArrayList<>());
+        }
+
+        double position[] = particles[i].getPosition().clone();
+        Future<Double> future = completionService.submit(() -> {
+            long start = System.nanoTime();
+            double value;
+            try {
+                value = fitnessFunction.evaluate(position);
+            } catch (RuntimeException | Error e) {
+                statistics.recordFailure();
+                throw e;
+            }
+            statistics.record(System.nanoTime() - start);
+            return value;
+        });
+        running.put(future, i);
+        inFlight++;
+    }
+
+    /**
+     * Wait for the next evaluation and update the particle, global and neighborhood bests
+     * @return Indexes of the evaluated particle and of the particles sharing its evaluation
+     */
+    protected int[] complete() {
+        Future<Double> future;
+        Integer index;
+        do {
+            try {
+                future = completionService.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Evaluation has been interrupted");
+            }
+            // Evaluations abandoned by cancel() are no longer running
+            index = running.remove(future);
+        } while (index == null);
+        inFlight--;
+        int i = index;
+
+        // The evaluation is over for the particles sharing it, even if it failed
+        int completed[] = { i };
+        List<Double> key = dispatchedKey.get(i);
+        List<Integer> waiting = (key != null ? sharing.remove(key) : null);
+        if (waiting != null) {
+            completed = new int[waiting.size() + 1];
+            completed[0] = i;
+            for (int k = 0; k < waiting.size(); k++)
+                completed[k + 1] = waiting.get(k);
+        }
+        for (int j : completed)
+            pending[j] = false;
+
+        try {
+            fitness[i] = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Evaluation has been interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw new RuntimeException(e.getCause());
+        }
+
+        numEvaluations++;
+
+        for (int j : completed) {
+            fitness[j] = fitness[i];
+            record(j);
+        }
+        return completed;
+    }
+
+    /**
+     * Update the particle, global and neighborhood bests with the particle's fitness
+     * @param i : Index of the particle
+     */
+    protected void record(int i) {
+        particles[i].setFitness(fitness[i], fitnessFunction.isMaximize());
+
+        // Update 'best global' position
+        if (fitnessFunction.isBetterThan(bestFitness, fitness[i])) {
+            bestFitness = fitness[i];
+            bestParticleIndex = i;
+            if (bestPosition == null)
+                bestPosition = new double[sampleParticle.getDimension()];
+            particles[i].copyPosition(bestPosition);
+        }
+
+        // Update 'best neighborhood'
+        if (neighborhood != null)
+            neighborhood.update(this, particles[i]);
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public EvaluationStatistics getStatistics() {
+        return statistics;
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2017 Paulius Danenas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.metaopt.swarm.pso;
+
+/**
+ * Maps a particle's position to a canonical position, e.g. by rounding dimensions that are effectively discrete
+ * Particles with the same canonical position must have the same fitness, so the swarm evaluates them only once
+ */
+public interface PositionCanonicalizer {
+
+    /**
+     * Canonical position of a particle (the given array must not be modified)
+     * @param position : Particle's position
+     * @return Canonical position
+     */
+    public double[] canonicalize(double position[]);
+}
@@ -21,9 +21,13 @@ import java.awt.Color;
 import java.awt.Graphics;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
-import java.util.stream.IntStream;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
 
 import net.metaopt.swarm.pso.variables.VariablesUpdate;
 import net.metaopt.swarm.pso.particle.SimpleParticleUpdate;
@@ -33,6 +37,8 @@ import net.metaopt.swarm.FitnessFunction;
 import net.metaopt.swarm.pso.constraints.ConstraintsHandler;
 import net.metaopt.swarm.pso.constraints.NearestBoundary;
 import net.metaopt.swarm.pso.constraints.RandomizedConstraintsHandler;
+import net.metaopt.swarm.pso.evaluation.EvaluationStrategy;
+import net.metaopt.swarm.pso.evaluation.ParallelStreamEvaluation;
 import net.metaopt.swarm.pso.init.GenericInitialization;
 import net.metaopt.swarm.pso.init.UniformInitialization;
 import net.metaopt.swarm.pso.variables.SimpleVariablesUpdate;
@@ -136,6 +142,10 @@ public class Swarm implements Iterable<Particle>, Population {
     protected GenericInitialization initializer;
     /* Random generator object */
     protected Random random;
+    /* Particle evaluation strategy */
+    protected EvaluationStrategy evaluationStrategy;
+    /* Position canonicalization, particles with the same canonical position are evaluated once (may be null) */
+    protected PositionCanonicalizer canonicalizer;
 
     //-------------------------------------------------------------------------
     // Constructors
@@ -178,6 +188,7 @@ public class Swarm implements Iterable<Particle>, Population {
         particlesList = null;
 
         constraintHandler = new NearestBoundary();
+        evaluationStrategy = new ParallelStreamEvaluation();
         random = new Random();
         if (seed != null)
             random.setSeed(seed);
@@ -220,16 +231,39 @@ public class Swarm implements Iterable<Particle>, Population {
         //---
         // Evaluate each particle (and find the 'best' one)
         //---
-        double[] fit = new double[particles.length];
-        
-        IntStream.range(0, particles.length).parallel().forEach(i -> {
-        	fit[i] = fitnessFunction.evaluate(particles[i]);
-        });
+        // Coalesce particles with the same canonical position
+        Particle evaluated[] = particles;
+        int representative[] = null;
+        if (canonicalizer != null) {
+            Map<List<Double>, Integer> keys = new HashMap<>();
+            List<Particle> unique = new ArrayList<>();
+            representative = new int[particles.length];
+            for (int i = 0; i < particles.length; i++) {
+                Integer r = keys.putIfAbsent(getCanonicalKey(particles[i]), unique.size());
+                if (r == null) {
+                    r = unique.size();
+                    unique.add(particles[i]);
+                }
+                representative[i] = r;
+            }
+            evaluated = unique.toArray(new Particle[unique.size()]);
+        }
 
-        for (int i = 0; i < particles.length; i++) {
-            // Evaluate particle
-            numEvaluations++; // Update counter
+        double[] fit = evaluationStrategy.evaluate(fitnessFunction, evaluated);
+        numEvaluations += evaluated.length; // Update counter
+
+        // Share the fitness with the duplicates
+        if (representative != null) {
+            double[] unique = fit;
+            fit = new double[particles.length];
+            for (int i = 0; i < particles.length; i++) {
+                fit[i] = unique[representative[i]];
+                if (particles[i] != evaluated[representative[i]])
+                    particles[i].setFitness(fit[i], fitnessFunction.isMaximize());
+            }
+        }
 
+        for (int i = 0; i < particles.length; i++) {
             // Update 'best global' position
             if (fitnessFunction.isBetterThan(bestFitness, fit[i])) {
                 bestFitness = fit[i]; // Copy best fitness, index, and position vector
@@ -246,6 +280,15 @@ public class Swarm implements Iterable<Particle>, Population {
         }
     }
 
+    /**
+     * Key of a particle's canonical position
+     * @param particle : Particle
+     * @return Canonical position as list
+     */
+    protected List<Double> getCanonicalKey(Particle particle) {
+        return DoubleStream.of(canonicalizer.canonicalize(particle.getPosition())).boxed().collect(Collectors.toList());
+    }
+
     /**
      * Make an iteration: - evaluates the swarm - updates positions and
      * velocities - applies positions and velocities constraints
@@ -660,6 +703,27 @@ public class Swarm implements Iterable<Particle>, Population {
             ((RandomizedConstraintsHandler) this.constraintHandler).setRandomGenerator(random);
     }
 
+    public PositionCanonicalizer getCanonicalizer() {
+        return canonicalizer;
+    }
+
+    /**
+     * Set the position canonicalization: particles with the same canonical position are evaluated only once per
+     * iteration and share the fitness
+     * @param canonicalizer : Canonicalization (null evaluates every particle)
+     */
+    public void setCanonicalizer(PositionCanonicalizer canonicalizer) {
+        this.canonicalizer = canonicalizer;
+    }
+
+    public EvaluationStrategy getEvaluationStrategy() {
+        return evaluationStrategy;
+    }
+
+    public void setEvaluationStrategy(EvaluationStrategy evaluationStrategy) {
+        this.evaluationStrategy = evaluationStrategy;
+    }
+
     public GenericInitialization getInitializer() {
         return initializer;
     }
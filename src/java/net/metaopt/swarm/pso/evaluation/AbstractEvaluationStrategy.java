@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2017 Paulius Danenas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.metaopt.swarm.pso.evaluation;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.DoubleSupplier;
+
+import net.metaopt.swarm.FitnessFunction;
+import net.metaopt.swarm.pso.Particle;
+
+/**
+ * Base class of evaluation strategies: measures every evaluation and handles cancellation
+ */
+public abstract class AbstractEvaluationStrategy implements EvaluationStrategy {
+
+    protected final EvaluationStatistics statistics = new EvaluationStatistics();
+    protected volatile boolean cancelled;
+
+    /**
+     * Evaluate a single particle and record its latency
+     * @param fitnessFunction : Fitness function
+     * @param particle : Particle to evaluate
+     * @return Fitness of the particle
+     */
+    protected double evaluate(FitnessFunction fitnessFunction, Particle particle) {
+        return measure(() -> fitnessFunction.evaluate(particle));
+    }
+
+    /**
+     * Run an evaluation and record its latency (or failure)
+     * @param evaluation : Evaluation to run
+     * @return Fitness returned by the evaluation
+     */
+    protected double measure(DoubleSupplier evaluation) {
+        checkCancelled();
+
+        long start = System.nanoTime();
+        try {
+            double fitness = evaluation.getAsDouble();
+            statistics.record(System.nanoTime() - start);
+            return fitness;
+        } catch (RuntimeException | Error e) {
+            statistics.recordFailure();
+            throw e;
+        }
+    }
+
+    /**
+     * Fitness of a particle that could not be evaluated in time, it never becomes the best one
+     * @param fitnessFunction : Fitness function
+     * @param particle : Particle that has not been evaluated
+     * @return Worst possible fitness
+     */
+    protected double worstFitness(FitnessFunction fitnessFunction, Particle particle) {
+        double fitness = fitnessFunction.isMaximize() ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        particle.setFitness(fitness, fitnessFunction.isMaximize());
+        return fitness;
+    }
+
+    protected void checkCancelled() {
+        if (cancelled)
+            throw new CancellationException("Evaluation has been cancelled");
+    }
+
+    @Override
+    public EvaluationStatistics getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+    }
+
+    @Override
+    public void shutdown() {
+    }
+}
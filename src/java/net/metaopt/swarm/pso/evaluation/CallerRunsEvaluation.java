@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2017 Paulius Danenas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.metaopt.swarm.pso.evaluation;
+
+import net.metaopt.swarm.FitnessFunction;
+import net.metaopt.swarm.pso.Particle;
+
+/**
+ * Evaluate the particles one after another in the calling thread
+ */
+public class CallerRunsEvaluation extends AbstractEvaluationStrategy {
+
+    @Override
+    public double[] evaluate(FitnessFunction fitnessFunction, Particle[] particles) {
+        double[] fit = new double[particles.length];
+        for (int i = 0; i < particles.length; i++)
+            fit[i] = evaluate(fitnessFunction, particles[i]);
+        return fit;
+    }
+}
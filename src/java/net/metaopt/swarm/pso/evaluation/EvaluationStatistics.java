@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2017 Paulius Danenas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.metaopt.swarm.pso.evaluation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread safe latency statistics of fitness evaluations
+ */
+public class EvaluationStatistics {
+
+    /** Number of completed evaluations */
+    private long count;
+    /** Number of evaluations that threw an exception */
+    private long failures;
+    /** Number of evaluations that did not complete in time */
+    private long timeouts;
+    /** Sum of the latencies of completed evaluations (nanoseconds) */
+    private long totalNanos;
+    /** Minimum latency (nanoseconds) */
+    private long minNanos = Long.MAX_VALUE;
+    /** Maximum latency (nanoseconds) */
+    private long maxNanos;
+
+    /**
+     * Record a completed evaluation
+     * @param nanos : Latency in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        count++;
+        totalNanos += nanos;
+        minNanos = Math.min(minNanos, nanos);
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    public synchronized void recordFailure() {
+        failures++;
+    }
+
+    public synchronized void recordTimeout() {
+        timeouts++;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getFailures() {
+        return failures;
+    }
+
+    public synchronized long getTimeouts() {
+        return timeouts;
+    }
+
+    public synchronized long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Minimum latency in nanoseconds (0 if nothing has been evaluated)
+     */
+    public synchronized long getMinNanos() {
+        return count == 0 ? 0 : minNanos;
+    }
+
+    public synchronized long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Mean latency in nanoseconds (0 if nothing has been evaluated)
+     */
+    public synchronized double getMeanNanos() {
+        return count == 0 ? 0 : (double) totalNanos / count;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Evaluations: " + count + ", failures: " + failures + ", timeouts: " + timeouts
+                + ", latency (ms) min/mean/max: " + TimeUnit.NANOSECONDS.toMillis(getMinNanos()) + "/"
+                + Math.round(getMeanNanos() / 1e6) + "/" + TimeUnit.NANOSECONDS.toMillis(maxNanos);
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2017 Paulius Danenas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.metaopt.swarm.pso.evaluation;
+
+import net.metaopt.swarm.FitnessFunction;
+import net.metaopt.swarm.pso.Particle;
+
+/**
+ * Strategy to evaluate the particles of a swarm
+ * Every Swarm.evaluate() call evaluates all particles at once and expects one fitness value per particle
+ */
+public interface EvaluationStrategy {
+
+    /**
+     * Evaluate every particle (and set its fitness)
+     * @param fitnessFunction : Fitness function
+     * @param particles : Particles to evaluate
+     * @return Fitness of each particle
+     * @throws java.util.concurrent.CancellationException if the strategy has been cancelled
+     */
+    public double[] evaluate(FitnessFunction fitnessFunction, Particle[] particles);
+
+    /**
+     * Latency statistics of all evaluations so far
+     */
+    public EvaluationStatistics getStatistics();
+
+    /**
+     * Cancel running evaluations; all further evaluations fail
+     */
+    public void cancel();
+
+    /**
+     * Release the threads of this strategy (if any)
+     */
+    public void shutdown();
+}
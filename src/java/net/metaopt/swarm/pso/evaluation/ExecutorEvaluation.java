@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2017 Paulius Danenas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.metaopt.swarm.pso.evaluation;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import net.metaopt.swarm.FitnessFunction;
+import net.metaopt.swarm.pso.Particle;
+
+/**
+ * Evaluate the particles as tasks of an executor service, optionally with a timeout per evaluation round
+ * The fitness function is called with a copy of the particle's position and the particle's fitness is set by the
+ * calling thread, so an evaluation that does not stop after a timeout can't modify the particle anymore
+ * A timed out evaluation is only interrupted, work it has handed to other threads keeps running unless the fitness
+ * function checks for cancellation itself, so the timeout abandons the result but does not free the threads
+ */
+public class ExecutorEvaluation extends AbstractEvaluationStrategy {
+
+    /** Executor running the evaluations */
+    private final ExecutorService executor;
+    /** Shut down the executor with this strategy? */
+    private final boolean ownsExecutor;
+    /** Maximum time for evaluating all particles (nanoseconds, 0 means no timeout) */
+    private long timeoutNanos;
+    /** Evaluations currently running (for cancellation) */
+    private final Set<Future<Double>> running = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor
+     * @param executor : Executor running the evaluations (it is not shut down by this strategy)
+     */
+    public ExecutorEvaluation(ExecutorService executor) {
+        this(executor, false);
+    }
+
+    private ExecutorEvaluation(ExecutorService executor, boolean ownsExecutor) {
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Evaluate on a fixed number of daemon threads
+     * @param threads : Number of threads
+     */
+    public static ExecutorEvaluation fixedPool(int threads) {
+        if (threads <= 0)
+            throw new RuntimeException("Number of threads should be greater than zero.");
+        return new ExecutorEvaluation(Executors.newFixedThreadPool(threads, daemonThreads()), true);
+    }
+
+    /**
+     * Evaluate every particle on its own virtual thread. Virtual threads are looked up by reflection, on Java
+     * versions without them every evaluation gets its own (cached) platform thread instead
+     */
+    public static ExecutorEvaluation virtualThreads() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return new ExecutorEvaluation((ExecutorService) factory.invoke(null), true);
+        } catch (ReflectiveOperationException e) {
+            return new ExecutorEvaluation(Executors.newCachedThreadPool(daemonThreads()), true);
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        ThreadFactory threads = Executors.defaultThreadFactory();
+        return runnable -> {
+            Thread thread = threads.newThread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public double[] evaluate(FitnessFunction fitnessFunction, Particle[] particles) {
+        checkCancelled();
+
+        List<Future<Double>> futures = new ArrayList<>(particles.length);
+        for (Particle particle : particles) {
+            double[] position = particle.getPosition().clone();
+            Future<Double> future = executor.submit(() -> measure(() -> fitnessFunction.evaluate(position)));
+            futures.add(future);
+            running.add(future);
+        }
+
+        long deadline = System.nanoTime() + timeoutNanos;
+        double[] fit = new double[particles.length];
+
+        try {
+            for (int i = 0; i < particles.length; i++) {
+                try {
+                    if (timeoutNanos > 0)
+                        fit[i] = futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    else
+                        fit[i] = futures.get(i).get();
+                    particles[i].setFitness(fit[i], fitnessFunction.isMaximize());
+                } catch (TimeoutException e) {
+                    futures.get(i).cancel(true);
+                    statistics.recordTimeout();
+                    fit[i] = worstFitness(fitnessFunction, particles[i]);
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Evaluation has been interrupted");
+        } finally {
+            // stop the remaining evaluations if anything went wrong
+            for (Future<Double> future : futures) {
+                future.cancel(true);
+                running.remove(future);
+            }
+        }
+
+        return fit;
+    }
+
+    @Override
+    public void cancel() {
+        super.cancel();
+        for (Future<Double> future : running)
+            future.cancel(true);
+    }
+
+    @Override
+    public void shutdown() {
+        if (ownsExecutor)
+            executor.shutdownNow();
+    }
+
+    public long getTimeout(TimeUnit unit) {
+        return unit.convert(timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Set the maximum time for evaluating all particles of a swarm. Particles that are not evaluated in time get the
+     * worst possible fitness, their evaluations are interrupted but may keep running in the background
+     * @param timeout : Timeout (0 means no timeout)
+     * @param unit : Unit of the timeout
+     */
+    public void setTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0)
+            throw new RuntimeException("Timeout can't be negative");
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+}
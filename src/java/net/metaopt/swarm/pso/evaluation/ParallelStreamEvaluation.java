@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2017 Paulius Danenas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.metaopt.swarm.pso.evaluation;
+
+import java.util.stream.IntStream;
+
+import net.metaopt.swarm.FitnessFunction;
+import net.metaopt.swarm.pso.Particle;
+
+/**
+ * Evaluate the particles with a parallel stream, i.e. in the fork/join pool of the calling thread (the common pool,
+ * unless Swarm.evolve() is called from a task of another pool). This is the default strategy
+ */
+public class ParallelStreamEvaluation extends AbstractEvaluationStrategy {
+
+    @Override
+    public double[] evaluate(FitnessFunction fitnessFunction, Particle[] particles) {
+        double[] fit = new double[particles.length];
+        IntStream.range(0, particles.length).parallel().forEach(i -> {
+            fit[i] = evaluate(fitnessFunction, particles[i]);
+        });
+        return fit;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2017 Paulius Danenas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.metaopt.swarm.surrogate;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.factory.LinearSolverFactory_DDRM;
+import org.ejml.interfaces.linsol.LinearSolverDense;
+
+/**
+ * Gaussian radial basis function regression
+ * Interpolates the deviations of the samples from their mean, a small ridge keeps the kernel matrix positive definite
+ * if samples are (almost) identical. Positions should be normalized, as the same shape is used for all dimensions
+ */
+public class RbfSurrogate {
+
+    /** Default width of the Gaussian kernel */
+    public static final double DEFAULT_SHAPE = 0.25;
+    /** Default ridge added to the kernel matrix's diagonal */
+    public static final double DEFAULT_REGULARIZATION = 1e-6;
+
+    /** Width of the Gaussian kernel */
+    protected double shape;
+    /** Ridge added to the kernel matrix's diagonal */
+    protected double regularization;
+    /** Sample positions */
+    protected double centers[][];
+    /** Kernel weight of each sample */
+    protected double weights[];
+    /** Mean of the sample values */
+    protected double mean;
+
+    public RbfSurrogate() {
+        this(DEFAULT_SHAPE, DEFAULT_REGULARIZATION);
+    }
+
+    /**
+     * Constructor
+     * @param shape : Width of the Gaussian kernel (should be greater than 0)
+     * @param regularization : Ridge added to the kernel matrix's diagonal (should not be negative)
+     */
+    public RbfSurrogate(double shape, double regularization) {
+        if (shape <= 0)
+            throw new RuntimeException("Kernel shape should be greater than 0");
+        if (regularization < 0)
+            throw new RuntimeException("Regularization can't be negative");
+        this.shape = shape;
+        this.regularization = regularization;
+    }
+
+    /**
+     * Fit the model on the given samples
+     * @param positions : Sample positions
+     * @param values : Sample values
+     */
+    public void fit(double positions[][], double values[]) {
+        int n = positions.length;
+        if (n == 0 || n != values.length)
+            throw new RuntimeException("Number of positions and values must be equal and greater than 0");
+
+        mean = 0;
+        for (double value : values)
+            mean += value / n;
+
+        DMatrixRMaj kernel = new DMatrixRMaj(n, n);
+        DMatrixRMaj deviations = new DMatrixRMaj(n, 1);
+        for (int i = 0; i < n; i++) {
+            kernel.unsafe_set(i, i, 1 + regularization);
+            for (int j = 0; j < i; j++) {
+                double k = kernel(positions[i], positions[j]);
+                kernel.unsafe_set(i, j, k);
+                kernel.unsafe_set(j, i, k);
+            }
+            deviations.unsafe_set(i, 0, values[i] - mean);
+        }
+
+        // The Cholesky decomposition overwrites its input, even if it fails. A kernel matrix that is not numerically
+        // positive definite is solved in the least squares sense instead
+        DMatrixRMaj solution = new DMatrixRMaj(n, 1);
+        LinearSolverDense<DMatrixRMaj> solver = LinearSolverFactory_DDRM.symmPosDef(n);
+        if (!solver.setA(solver.modifiesA() ? kernel.copy() : kernel)) {
+            solver = LinearSolverFactory_DDRM.pseudoInverse(true);
+            if (!solver.setA(solver.modifiesA() ? kernel.copy() : kernel))
+                throw new RuntimeException("Kernel matrix can't be decomposed");
+        }
+        solver.solve(deviations, solution);
+
+        centers = positions.clone();
+        weights = solution.getData().clone();
+    }
+
+    /**
+     * Predict the value at a given position
+     * @param position : Position
+     * @return Predicted value
+     */
+    public double predict(double position[]) {
+        if (!isFitted())
+            throw new RuntimeException("Surrogate is not fitted");
+        double value = mean;
+        for (int i = 0; i < centers.length; i++)
+            value += weights[i] * kernel(position, centers[i]);
+        return value;
+    }
+
+    /**
+     * Euclidean distance to the nearest sample the model was fitted on
+     * @param position : Position
+     * @return Distance (infinity if the model is not fitted)
+     */
+    public double distanceToNearest(double position[]) {
+        if (!isFitted())
+            return Double.POSITIVE_INFINITY;
+        double nearest = Double.POSITIVE_INFINITY;
+        for (double center[] : centers)
+            nearest = Math.min(nearest, squaredDistance(position, center));
+        return Math.sqrt(nearest);
+    }
+
+    protected double kernel(double a[], double b[]) {
+        return Math.exp(-squaredDistance(a, b) / (shape * shape));
+    }
+
+    protected static double squaredDistance(double a[], double b[]) {
+        double distance = 0;
+        for (int i = 0; i < a.length; i++) {
+            double d = a[i] - b[i];
+            distance += d * d;
+        }
+        return distance;
+    }
+
+    public boolean isFitted() {
+        return centers != null;
+    }
+
+    public int getNumberOfSamples() {
+        return (centers != null ? centers.length : 0);
+    }
+
+    public double getShape() {
+        return shape;
+    }
+
+    public double getRegularization() {
+        return regularization;
+    }
+}
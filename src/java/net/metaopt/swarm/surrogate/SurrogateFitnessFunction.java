@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2017 Paulius Danenas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.metaopt.swarm.surrogate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.metaopt.swarm.FitnessFunction;
+import net.metaopt.swarm.pso.PositionCanonicalizer;
+
+/**
+ * Fitness function that pre-screens positions with a surrogate before evaluating them
+ * The surrogate is fitted on all true evaluations. A position close to an evaluated one (within the trust radius)
+ * whose predicted fitness is worse than the best true fitness by more than the margin is not evaluated, it gets the
+ * predicted fitness instead. Skipped positions can't become the global best, but may become a particle's best.
+ * Samples closer than the minimum sample distance to an earlier one are not added, since (almost) identical samples
+ * make the kernel matrix ill-conditioned. If a canonicalizer is set, positions are screened and recorded at their
+ * canonical position. Thread safe if the wrapped fitness function is
+ */
+public class SurrogateFitnessFunction extends FitnessFunction {
+
+    /** Wrapped (expensive) fitness function */
+    protected FitnessFunction fitnessFunction;
+    /** Surrogate of the fitness function */
+    protected RbfSurrogate surrogate;
+    /** Lower bounds of the positions, used for normalization */
+    protected double minPosition[];
+    /** Upper bounds of the positions, used for normalization */
+    protected double maxPosition[];
+    /** Number of true evaluations before positions are screened */
+    protected int minSamples = 10;
+    /** How much worse than the best fitness a prediction must be for skipping the evaluation */
+    protected double margin = 0.1;
+    /** Maximum (normalized) distance to an evaluated position for trusting a prediction */
+    protected double trustRadius = 0.1;
+    /** Minimum (normalized) distance between the samples of the surrogate */
+    protected double minSampleDistance = 1e-3;
+    /** Position canonicalization applied before screening and recording (may be null) */
+    protected PositionCanonicalizer canonicalizer;
+    /** Normalized positions of the true evaluations */
+    protected List<double[]> samples = new ArrayList<>();
+    /** Fitness of the true evaluations */
+    protected List<Double> values = new ArrayList<>();
+    /** Number of samples the surrogate has been fitted on */
+    protected int fittedSamples;
+    /** Best true fitness */
+    protected double bestFitness = Double.NaN;
+    /** Number of true evaluations */
+    protected AtomicInteger evaluated = new AtomicInteger();
+    /** Number of skipped evaluations */
+    protected AtomicInteger skipped = new AtomicInteger();
+
+    /**
+     * Constructor
+     * @param fitnessFunction : Fitness function to screen for
+     * @param minPosition : Lower bounds of the positions
+     * @param maxPosition : Upper bounds of the positions
+     */
+    public SurrogateFitnessFunction(FitnessFunction fitnessFunction, double minPosition[], double maxPosition[]) {
+        this(fitnessFunction, minPosition, maxPosition, new RbfSurrogate());
+    }
+
+    /**
+     * Constructor
+     * @param fitnessFunction : Fitness function to screen for
+     * @param minPosition : Lower bounds of the positions
+     * @param maxPosition : Upper bounds of the positions
+     * @param surrogate : Surrogate of the fitness function
+     */
+    public SurrogateFitnessFunction(FitnessFunction fitnessFunction, double minPosition[], double maxPosition[],
+            RbfSurrogate surrogate) {
+        super(fitnessFunction.isMaximize());
+        if (minPosition.length != maxPosition.length)
+            throw new RuntimeException("Position bounds must have the same dimension");
+        this.fitnessFunction = fitnessFunction;
+        this.minPosition = minPosition.clone();
+        this.maxPosition = maxPosition.clone();
+        this.surrogate = surrogate;
+    }
+
+    @Override
+    public double evaluate(double position[]) {
+        double normalized[] = normalize(canonicalizer != null ? canonicalizer.canonicalize(position) : position);
+
+        double predicted = screen(normalized);
+        if (!Double.isNaN(predicted)) {
+            skipped.incrementAndGet();
+            return predicted;
+        }
+
+        double fit = fitnessFunction.evaluate(position);
+        evaluated.incrementAndGet();
+        record(normalized, fit);
+        return fit;
+    }
+
+    /**
+     * Predict the fitness of a position, if its evaluation can be skipped
+     * @param position : Normalized position
+     * @return Predicted fitness or NaN if the position must be evaluated
+     */
+    protected synchronized double screen(double position[]) {
+        if (samples.size() < minSamples)
+            return Double.NaN;
+
+        if (fittedSamples != samples.size()) {
+            double fit[] = new double[values.size()];
+            for (int i = 0; i < fit.length; i++)
+                fit[i] = values.get(i);
+            surrogate.fit(samples.toArray(new double[samples.size()][]), fit);
+            fittedSamples = samples.size();
+        }
+
+        if (surrogate.distanceToNearest(position) > trustRadius)
+            return Double.NaN;
+
+        double predicted = surrogate.predict(position);
+        double threshold = (isMaximize() ? bestFitness - margin : bestFitness + margin);
+        return (isBetterThan(predicted, threshold) ? predicted : Double.NaN);
+    }
+
+    /**
+     * Add a true evaluation to the history
+     * @param position : Normalized position
+     * @param fit : Fitness
+     */
+    protected synchronized void record(double position[], double fit) {
+        if (Double.isNaN(fit) || Double.isInfinite(fit))
+            return;
+        if (Double.isNaN(bestFitness) || isBetterThan(bestFitness, fit))
+            bestFitness = fit;
+
+        // Near-duplicates would only make the kernel matrix singular
+        for (double sample[] : samples)
+            if (RbfSurrogate.squaredDistance(sample, position) < minSampleDistance * minSampleDistance)
+                return;
+        samples.add(position);
+        values.add(fit);
+    }
+
+    protected double[] normalize(double position[]) {
+        double normalized[] = new double[position.length];
+        for (int i = 0; i < position.length; i++) {
+            double range = maxPosition[i] - minPosition[i];
+            normalized[i] = (range > 0 ? (position[i] - minPosition[i]) / range : 0);
+        }
+        return normalized;
+    }
+
+    @Override
+    public void setMaximize(boolean maximize) {
+        super.setMaximize(maximize);
+        fitnessFunction.setMaximize(maximize);
+    }
+
+    public FitnessFunction getFitnessFunction() {
+        return fitnessFunction;
+    }
+
+    public RbfSurrogate getSurrogate() {
+        return surrogate;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public double getMargin() {
+        return margin;
+    }
+
+    public void setMargin(double margin) {
+        this.margin = margin;
+    }
+
+    public double getTrustRadius() {
+        return trustRadius;
+    }
+
+    public void setTrustRadius(double trustRadius) {
+        this.trustRadius = trustRadius;
+    }
+
+    public double getMinSampleDistance() {
+        return minSampleDistance;
+    }
+
+    public void setMinSampleDistance(double minSampleDistance) {
+        this.minSampleDistance = minSampleDistance;
+    }
+
+    public PositionCanonicalizer getCanonicalizer() {
+        return canonicalizer;
+    }
+
+    /**
+     * Set the position canonicalization: positions with the same canonical position are one sample of the surrogate
+     * @param canonicalizer : Canonicalization (null uses the positions as they are)
+     */
+    public void setCanonicalizer(PositionCanonicalizer canonicalizer) {
+        this.canonicalizer = canonicalizer;
+    }
+
+    public int getNumberOfEvaluations() {
+        return evaluated.get();
+    }
+
+    public int getNumberOfSkipped() {
+        return skipped.get();
+    }
+
+    @Override
+    public String toString() {
+        return "Surrogate screening: " + getNumberOfEvaluations() + " evaluated, " + getNumberOfSkipped() + " skipped";
+    }
+}
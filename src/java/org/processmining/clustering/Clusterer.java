@@ -21,6 +21,7 @@ import org.deckfour.xes.model.XLog;
 import org.deckfour.xes.model.XTrace;
 import org.processmining.clustering.evaluator.EvaluationUtils;
 import org.processmining.clustering.evaluator.model.EventLogClusters;
+import org.processmining.clustering.model.ClusterLogView;
 import org.processmining.clustering.model.FieldValue;
 import org.processmining.clustering.model.Itemset;
 import org.processmining.clustering.model.Variant;
@@ -57,4 +58,17 @@ public class Clusterer extends AbstractPlugin {
         }
     }
 
+    /**
+     * Assigns views of the traces in the event log to the clusters, the logs are only created if requested.
+     *
+     * @param clusters
+     * @param variantTraceIndices indexes of the traces of each variant in the log, indexed by the variant id
+     * @param log
+     */
+    public void assignTraceViewsToVariants(Collection<VariantCluster> clusters, int[][] variantTraceIndices, XLog log) {
+        for (VariantCluster cluster : clusters) {
+            cluster.setLogView(new ClusterLogView(log, cluster.getVariants(), variantTraceIndices));
+        }
+    }
+
 }
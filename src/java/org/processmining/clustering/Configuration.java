@@ -17,8 +17,174 @@
  */
 package org.processmining.clustering;
 
+import org.processmining.clustering.similarity.EditDistanceEngine;
+
 public class Configuration {
 	
 	public static boolean SORT_EVENT_LOG = false;
 
+	/**
+	 * Reuse the fitness of PSO positions that map to an already evaluated (support, numClusters, weighting) triple. The
+	 * weighting is only quantized if enabled
+	 */
+	public static boolean USE_EVALUATION_CACHE = true;
+
+	/**
+	 * Resolution used to quantize the minimum support of a PSO position
+	 */
+	public static double SUPPORT_RESOLUTION = 0.001;
+
+	/**
+	 * Resolution used to quantize the weighting of a PSO position
+	 */
+	public static double WEIGHTING_RESOLUTION = 0.01;
+
+	/**
+	 * Mine the closed itemsets of each variant once at the lowest searched support and derive higher supports by
+	 * filtering
+	 */
+	public static boolean SUPPORT_MONOTONE_MINING = true;
+
+	/**
+	 * Maximum number of variants for which all pairwise variant distances are precomputed
+	 */
+	public static int VARIANT_DISTANCE_MATRIX_LIMIT = 5000;
+
+	/**
+	 * Maximum number of variant pairs cached, if the variant distances are calculated lazily
+	 */
+	public static int VARIANT_DISTANCE_CACHE_SIZE = 1000000;
+
+	/**
+	 * Store the itemset distance matrix in single instead of double precision (halves its memory, the clustering
+	 * itself always works on float distances)
+	 */
+	public static boolean SINGLE_PRECISION_DISTANCE_MATRIX = false;
+
+	/**
+	 * Algorithm used to calculate the Levenshtein distance between variants
+	 */
+	public static EditDistanceEngine EDIT_DISTANCE_ENGINE = EditDistanceEngine.BIT_PARALLEL;
+
+	/**
+	 * Number of worker threads shared by all parallel phases of the clustering (particles, itemset mining, distance
+	 * matrix and process model evaluation)
+	 */
+	public static int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Reuse the process model statistics of clusters with the same variants
+	 */
+	public static boolean USE_CLUSTER_MODEL_CACHE = true;
+
+	/**
+	 * Maximum number of clusters kept in the cluster model cache
+	 */
+	public static int CLUSTER_MODEL_CACHE_SIZE = 10000;
+
+	/**
+	 * Mine the cluster models from weighted variants instead of trace by trace. The fitness is then calculated by an
+	 * own replay that may deviate from the improved continuous semantics of ProM
+	 */
+	public static boolean WEIGHTED_MODEL_EVALUATION = false;
+
+	/**
+	 * Reuse the itemsets and dendrogram of already clustered (support, weighting) pairs, so that only the cut of the
+	 * dendrogram is repeated for a different number of clusters
+	 */
+	public static boolean USE_DENDROGRAM_CACHE = true;
+
+	/**
+	 * Maximum number of (support, weighting) pairs kept in the dendrogram cache, the entries do not keep any distance
+	 * matrix alive (the distances are bounded by the itemset distance cache)
+	 */
+	public static int DENDROGRAM_CACHE_SIZE = 16;
+
+	/**
+	 * Reuse the itemsets and the sequence and itemset distance components of already clustered supports, so that
+	 * another weighting only blends the components
+	 */
+	public static boolean USE_ITEMSET_DISTANCE_CACHE = true;
+
+	/**
+	 * Maximum number of supports kept in the itemset distance cache, every entry holds two distance matrices
+	 */
+	public static int ITEMSET_DISTANCE_CACHE_SIZE = 4;
+
+	/**
+	 * Calculate the sequence distances between itemsets as a product of sparse incidence and dense variant distance
+	 * matrices instead of pair by pair, if all variant distances are precomputed
+	 */
+	public static boolean MATRIX_PRODUCT_SEQUENCE_DISTANCES = true;
+
+	/**
+	 * Executor used to evaluate the particles of the swarm (the asynchronous swarm always uses the shared pool)
+	 */
+	public static ParticleEvaluation PARTICLE_EVALUATION = ParticleEvaluation.SHARED_POOL;
+
+	/**
+	 * Maximum time in seconds for evaluating all particles of an iteration, particles that are not evaluated in time
+	 * get the worst fitness (0 means no timeout, only supported by FIXED_POOL and VIRTUAL_THREADS and not by the
+	 * asynchronous swarm). The result of a timed out evaluation is abandoned, the mining it started in the shared pool
+	 * still runs to completion
+	 */
+	public static long PARTICLE_EVALUATION_TIMEOUT = 0;
+
+	/**
+	 * Update and evaluate every particle again as soon as its own evaluation completes (steady-state PSO), instead
+	 * of waiting for all particles of an iteration
+	 */
+	public static boolean ASYNCHRONOUS_SWARM = false;
+
+	/**
+	 * Maximum number of swarm iterations (0 means no limit)
+	 */
+	public static int MAX_ITERATIONS = 10;
+
+	/**
+	 * Wall-clock budget of the clustering in seconds, counted from the start including the variant and distance
+	 * setup. No iteration is started that is not expected to finish in time and the asynchronous swarm abandons its
+	 * running evaluations when it is exhausted. It is a soft limit: an iteration that is slower than all before and
+	 * the final clustering of the best configuration (mostly from the caches) may exceed it (0 means no limit)
+	 */
+	public static long TIME_BUDGET = 0;
+
+	/**
+	 * Maximum number of particle evaluations of the optimization (0 means no limit)
+	 */
+	public static int EVALUATION_BUDGET = 0;
+
+	/**
+	 * Number of iterations without improvement after which the optimization stops (0 means no limit)
+	 */
+	public static int STAGNATION_WINDOW = 0;
+
+	/**
+	 * Evaluate particles that quantize to the same (support, numClusters, weighting) configuration only once per
+	 * iteration, concurrently evaluated duplicates would otherwise all miss the evaluation cache
+	 */
+	public static boolean COALESCE_PARTICLE_EVALUATIONS = true;
+
+	/**
+	 * Predict the fitness of a position with a radial basis function surrogate fitted on the evaluation history and
+	 * skip the evaluation, if the prediction is clearly worse than the best fitness found so far
+	 */
+	public static boolean SURROGATE_SCREENING = false;
+
+	/**
+	 * Number of evaluations before the surrogate screens positions
+	 */
+	public static int SURROGATE_MIN_SAMPLES = 10;
+
+	/**
+	 * How much worse than the best fitness a predicted fitness must be for skipping the evaluation
+	 */
+	public static double SURROGATE_MARGIN = 0.1;
+
+	/**
+	 * Maximum distance (in the search space normalized to the unit cube) of a position to an evaluated one for
+	 * trusting the surrogate's prediction
+	 */
+	public static double SURROGATE_TRUST_RADIUS = 0.1;
+
 }
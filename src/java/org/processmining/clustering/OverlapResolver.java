@@ -0,0 +1,178 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering;
+
+import org.processmining.clustering.model.Variant;
+import org.processmining.clustering.model.VariantCluster;
+import org.processmining.clustering.similarity.VariantDistances;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Resolves overlapping clusters by keeping every variant only in the cluster it is most similar to (the lowest
+ * average distance to the variants of the cluster, ties go to the first cluster).
+ *
+ * The distance sums of every shared variant to each of its clusters are calculated once. The shared variants are then
+ * resolved one after another in a single pass over a worklist (in the order of the clusters and their variants), and
+ * whenever a variant is removed from a cluster the sums of the pending variants of that cluster are updated.
+ */
+public class OverlapResolver {
+
+    private final List<VariantCluster> clusters;
+
+    private final VariantDistances distances;
+
+    /**
+     * Shared variants in the order of their first occurrence
+     */
+    private final List<Variant> shared = new ArrayList<>();
+
+    /**
+     * Clusters containing each shared variant
+     */
+    private final List<int[]> owners = new ArrayList<>();
+
+    /**
+     * Distance sums of each shared variant to each of its clusters
+     */
+    private double[][] sums;
+
+    /**
+     * Pending shared variants of each cluster as (shared index, owner slot) pairs
+     */
+    private List<List<int[]>> pending;
+
+    private int[] sizes;
+
+    public OverlapResolver(List<VariantCluster> clusters, VariantDistances distances) {
+        this.clusters = clusters;
+        this.distances = distances;
+    }
+
+    /**
+     * Removes all overlaps between the clusters.
+     *
+     * @return the number of removed variant assignments
+     */
+    public int resolve() {
+        findSharedVariants();
+        if (shared.isEmpty()) {
+            return 0;
+        }
+
+        calculateSums();
+
+        boolean[] resolved = new boolean[shared.size()];
+        int removed = 0;
+
+        for (int s = 0; s < shared.size(); s++) {
+            Variant variant = shared.get(s);
+            int[] clusterIndexes = owners.get(s);
+
+            // find the most similar cluster
+            int best = 0;
+            double bestDistance = sums[s][0] / sizes[clusterIndexes[0]];
+            for (int slot = 1; slot < clusterIndexes.length; slot++) {
+                double distance = sums[s][slot] / sizes[clusterIndexes[slot]];
+                if (distance < bestDistance) {
+                    best = slot;
+                    bestDistance = distance;
+                }
+            }
+
+            resolved[s] = true;
+
+            // remove the variant from all other clusters
+            for (int slot = 0; slot < clusterIndexes.length; slot++) {
+                if (slot == best)
+                    continue;
+
+                int c = clusterIndexes[slot];
+                clusters.get(c).getVariants().remove(variant);
+                sizes[c]--;
+                removed++;
+
+                for (int[] entry : pending.get(c)) {
+                    if (!resolved[entry[0]]) {
+                        sums[entry[0]][entry[1]] -= distances.getDistance(shared.get(entry[0]), variant);
+                    }
+                }
+            }
+        }
+
+        return removed;
+    }
+
+    private void findSharedVariants() {
+        Map<Variant, List<Integer>> clustersOfVariant = new LinkedHashMap<>();
+
+        for (int c = 0; c < clusters.size(); c++) {
+            for (Variant variant : clusters.get(c).getVariants()) {
+                clustersOfVariant.computeIfAbsent(variant, x -> new ArrayList<>()).add(c);
+            }
+        }
+
+        for (Map.Entry<Variant, List<Integer>> entry : clustersOfVariant.entrySet()) {
+            if (entry.getValue().size() > 1) {
+                shared.add(entry.getKey());
+                owners.add(entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+            }
+        }
+    }
+
+    private void calculateSums() {
+        sizes = new int[clusters.size()];
+        pending = new ArrayList<>(clusters.size());
+
+        for (int c = 0; c < clusters.size(); c++) {
+            sizes[c] = clusters.get(c).getVariants().size();
+            pending.add(new ArrayList<>());
+        }
+
+        for (int s = 0; s < shared.size(); s++) {
+            int[] clusterIndexes = owners.get(s);
+            for (int slot = 0; slot < clusterIndexes.length; slot++) {
+                pending.get(clusterIndexes[slot]).add(new int[]{s, slot});
+            }
+        }
+
+        sums = new double[shared.size()][];
+
+        Parallelism.invoke(() -> {
+            IntStream.range(0, shared.size()).parallel().forEach(s -> {
+                Variant variant = shared.get(s);
+                int[] clusterIndexes = owners.get(s);
+
+                sums[s] = new double[clusterIndexes.length];
+                for (int slot = 0; slot < clusterIndexes.length; slot++) {
+                    double sum = 0;
+                    for (Variant other : clusters.get(clusterIndexes[slot]).getVariants()) {
+                        sum += distances.getDistance(other, variant);
+                    }
+                    sums[s][slot] = sum;
+                }
+            });
+            return null;
+        });
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * Shared fork/join pool for the parallel phases of the clustering. The pool is sized by
+ * {@link Configuration#PARALLELISM} and recreated if the configuration changes.
+ */
+public class Parallelism {
+
+    private static ForkJoinPool pool;
+
+    /**
+     * Returns the shared pool.
+     *
+     * @return
+     */
+    public static synchronized ForkJoinPool getPool() {
+        int parallelism = Math.max(1, Configuration.PARALLELISM);
+
+        if (pool == null || pool.getParallelism() != parallelism) {
+            if (pool != null) {
+                pool.shutdown();
+            }
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+
+    /**
+     * Computes the result of the given action in the shared pool and waits for it. Parallel streams started by the
+     * action use the workers of the shared pool instead of the common pool.
+     *
+     * @param action
+     * @return
+     */
+    public static <T> T invoke(Supplier<T> action) {
+        ForkJoinPool pool = getPool();
+
+        if (ForkJoinTask.getPool() == pool) {
+            return action.get();
+        }
+        return pool.invoke(ForkJoinTask.adapt(action::get));
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering;
+
+/**
+ * Executors that can be used to evaluate the particles of the swarm.
+ */
+public enum ParticleEvaluation {
+
+    /**
+     * Parallel stream in the shared pool of {@link Parallelism}, together with the nested parallel phases
+     */
+    SHARED_POOL,
+
+    /**
+     * Own fixed pool with {@link Configuration#PARALLELISM} threads
+     */
+    FIXED_POOL,
+
+    /**
+     * One virtual thread per particle (one platform thread per particle before Java 21)
+     */
+    VIRTUAL_THREADS,
+
+    /**
+     * One particle after another in the calling thread
+     */
+    CALLER_RUNS
+
+}
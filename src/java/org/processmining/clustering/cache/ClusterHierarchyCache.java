@@ -0,0 +1,80 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.cache;
+
+import java.util.function.Supplier;
+
+import org.processmining.clustering.model.ClusterHierarchy;
+
+/**
+ * Bounded least-recently-used cache of cluster hierarchies by their (quantized) minimum support and weighting. PSO
+ * moves that only change the number of clusters are answered by cutting the cached dendrogram, without mining the
+ * itemsets, building the distance matrix and clustering again.
+ */
+public class ClusterHierarchyCache extends LruCache<ClusterHierarchyCache.Key, ClusterHierarchy> {
+
+    /**
+     * @param maximumSize maximum number of cached hierarchies
+     */
+    public ClusterHierarchyCache(int maximumSize) {
+        super("Dendrogram cache", maximumSize);
+    }
+
+    /**
+     * Returns the cached hierarchy for the given minimum support and weighting or creates it with the given
+     * supplier.
+     *
+     * @param minSupport
+     * @param weighting
+     * @param supplier
+     * @return
+     */
+    public ClusterHierarchy getHierarchy(double minSupport, double weighting, Supplier<ClusterHierarchy> supplier) {
+        return get(new Key(minSupport, weighting), supplier);
+    }
+
+    /**
+     * Minimum support and weighting of a hierarchy.
+     */
+    static class Key {
+
+        private final double minSupport;
+
+        private final double weighting;
+
+        Key(double minSupport, double weighting) {
+            this.minSupport = minSupport;
+            this.weighting = weighting;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) object;
+            return Double.compare(minSupport, other.minSupport) == 0 && Double.compare(weighting, other.weighting) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Double.hashCode(minSupport) + Double.hashCode(weighting);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.cache;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+import org.processmining.clustering.evaluator.model.IProcessModel;
+import org.processmining.clustering.model.Variant;
+
+/**
+ * Bounded least-recently-used cache of the process model statistics of clusters. A cluster log only depends on the
+ * variants of the cluster, so clusters with the same variants (identified by their sorted variant ids) share the
+ * mined model, even if they are produced by different particles or iterations.
+ */
+public class ClusterModelCache extends LruCache<ClusterModelCache.Fingerprint, ClusterModelCache.ModelStatistics> {
+
+    /**
+     * @param maximumSize maximum number of cached clusters
+     */
+    public ClusterModelCache(int maximumSize) {
+        super("Cluster model cache", maximumSize);
+    }
+
+    /**
+     * Returns the cached statistics of the model of the cluster with the given variants or mines the model with the
+     * given supplier.
+     *
+     * @param variants
+     * @param supplier
+     * @return
+     */
+    public ModelStatistics getStatistics(Collection<Variant> variants, Supplier<IProcessModel> supplier) {
+        return get(new Fingerprint(variants), () -> new ModelStatistics(supplier.get()));
+    }
+
+    /**
+     * Sorted variant ids of a cluster.
+     */
+    static class Fingerprint {
+
+        private final int[] ids;
+
+        private final int hash;
+
+        Fingerprint(Collection<Variant> variants) {
+            this.ids = variants.stream().mapToInt(Variant::getId).sorted().toArray();
+            this.hash = Arrays.hashCode(ids);
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Fingerprint)) {
+                return false;
+            }
+
+            Fingerprint other = (Fingerprint) object;
+            return hash == other.hash && Arrays.equals(ids, other.ids);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Statistics of a mined process model, the model itself is not retained.
+     */
+    public static class ModelStatistics {
+
+        private final double fitness;
+
+        private final int numberOfEdges;
+
+        private final int numberOfNodes;
+
+        ModelStatistics(IProcessModel model) {
+            this.fitness = model.getFitness();
+            this.numberOfEdges = model.getNumberOfEdges();
+            this.numberOfNodes = model.getNumberOfNodes();
+        }
+
+        public double getFitness() {
+            return fitness;
+        }
+
+        public int getNumberOfEdges() {
+            return numberOfEdges;
+        }
+
+        public int getNumberOfNodes() {
+            return numberOfNodes;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Thread-safe bounded cache of double values by long keys that does not box its entries. The entries are kept in sets
+ * of four ways selected by the hash of the key, and the sets are locked in stripes, so concurrent lookups of different
+ * keys rarely contend. A full set evicts its least recently used entry. Values are computed outside of the locks, so
+ * concurrent misses on the same key compute the same value.
+ */
+public class DoubleCache {
+
+    private static final int WAYS = 4;
+
+    private static final int STRIPES = 64;
+
+    private final String name;
+
+    private final int sets;
+
+    /**
+     * Keys of the entries, the ways of each set ordered from the most to the least recently used (0 marks a free way)
+     */
+    private final long[] keys;
+
+    private final double[] values;
+
+    private final Object[] locks;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param name name of the cache in its statistics
+     * @param maximumSize maximum number of cached entries, rounded down to a multiple of four (at least four)
+     */
+    public DoubleCache(String name, int maximumSize) {
+        this.name = name;
+        this.sets = Math.max(1, maximumSize / WAYS);
+        this.keys = new long[sets * WAYS];
+        this.values = new double[sets * WAYS];
+
+        this.locks = new Object[Math.min(STRIPES, sets)];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Returns the cached value of the given key or computes it with the given supplier.
+     *
+     * @param key key of the value, must not be 0
+     * @param supplier
+     * @return
+     */
+    public double get(long key, DoubleSupplier supplier) {
+        // spread the key and map its high bits onto the sets
+        long hash = (key * 0x9E3779B97F4A7C15L) >>> 32;
+        int set = (int) ((hash * sets) >>> 32);
+        int first = set * WAYS;
+        Object lock = locks[set % locks.length];
+
+        synchronized (lock) {
+            for (int way = first; way < first + WAYS; way++) {
+                if (keys[way] == key) {
+                    double value = values[way];
+                    moveToFront(first, way, key, value);
+                    hits.increment();
+                    return value;
+                }
+            }
+        }
+
+        misses.increment();
+        double value = supplier.getAsDouble();
+
+        synchronized (lock) {
+            // replace the least recently used way, or the entry of a concurrent miss on the same key
+            int way = first;
+            while (way < first + WAYS - 1 && keys[way] != key) {
+                way++;
+            }
+            moveToFront(first, way, key, value);
+        }
+
+        return value;
+    }
+
+    /**
+     * Shifts the more recently used ways of a set down over the given way and stores the entry in the first way.
+     */
+    private void moveToFront(int first, int way, long key, double value) {
+        for (int i = way; i > first; i--) {
+            keys[i] = keys[i - 1];
+            values[i] = values[i - 1];
+        }
+        keys[first] = key;
+        values[first] = value;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (int set = 0; set < sets; set++) {
+            synchronized (locks[set % locks.length]) {
+                for (int way = set * WAYS; way < (set + 1) * WAYS; way++) {
+                    if (keys[way] != 0) {
+                        size++;
+                    }
+                }
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + getHits() + " hits, " + getMisses() + " misses, " + size() + " entries";
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe cache of fitness values for already evaluated PSO positions. Positions are quantized to a
+ * (support, numClusters, weighting) triple, so that particles landing on the same effective configuration share
+ * one evaluation.
+ */
+public class EvaluationCache {
+
+    private final double supportResolution;
+
+    private final double weightingResolution;
+
+    private final Map<Key, Double> fitness = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    public EvaluationCache(double supportResolution, double weightingResolution) {
+        this.supportResolution = supportResolution;
+        this.weightingResolution = weightingResolution;
+    }
+
+    /**
+     * Returns the quantized key for the given position.
+     *
+     * @param support
+     * @param numClusters
+     * @param weighting
+     * @return
+     */
+    public Key getKey(double support, int numClusters, double weighting) {
+        return new Key(Math.round(support / supportResolution), numClusters,
+                Math.round(weighting / weightingResolution));
+    }
+
+    /**
+     * Returns the cached fitness for the given key or null, if the position was not evaluated yet.
+     *
+     * @param key
+     * @return
+     */
+    public Double get(Key key) {
+        Double value = fitness.get(key);
+        if (value != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return value;
+    }
+
+    public void put(Key key, double value) {
+        fitness.put(key, value);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        return fitness.size();
+    }
+
+    @Override
+    public String toString() {
+        return "Evaluation cache: " + getHits() + " hits, " + getMisses() + " misses, " + size() + " entries";
+    }
+
+    /**
+     * Quantized PSO position.
+     */
+    public class Key {
+
+        private final long support;
+
+        private final int numClusters;
+
+        private final long weighting;
+
+        private Key(long support, int numClusters, long weighting) {
+            this.support = support;
+            this.numClusters = numClusters;
+            this.weighting = weighting;
+        }
+
+        public double getSupport() {
+            return Math.round(support * supportResolution * 1e9d) / 1e9d;
+        }
+
+        public int getNumClusters() {
+            return numClusters;
+        }
+
+        public double getWeighting() {
+            return Math.round(weighting * weightingResolution * 1e9d) / 1e9d;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) object;
+            return support == other.support && numClusters == other.numClusters && weighting == other.weighting;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = Long.hashCode(support);
+            hash = 31 * hash + numClusters;
+            hash = 31 * hash + Long.hashCode(weighting);
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + getSupport() + ", " + getNumClusters() + ", " + getWeighting() + "]";
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.cache;
+
+import java.util.function.Supplier;
+
+import org.processmining.clustering.model.ItemsetDistances;
+
+/**
+ * Bounded least-recently-used cache of the itemsets and distance components by their (quantized) minimum support.
+ * PSO moves that keep the support are clustered from the cached components for any weighting, without mining the
+ * itemsets and calculating distances again.
+ */
+public class ItemsetDistancesCache extends LruCache<Double, ItemsetDistances> {
+
+    /**
+     * @param maximumSize maximum number of cached support levels
+     */
+    public ItemsetDistancesCache(int maximumSize) {
+        super("Itemset distance cache", maximumSize);
+    }
+
+    /**
+     * Returns the cached distances for the given minimum support or creates them with the given supplier.
+     *
+     * @param minSupport
+     * @param supplier
+     * @return
+     */
+    public ItemsetDistances getDistances(double minSupport, Supplier<ItemsetDistances> supplier) {
+        return get(minSupport, supplier);
+    }
+}
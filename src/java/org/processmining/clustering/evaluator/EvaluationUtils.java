@@ -17,56 +17,91 @@
  */
 package org.processmining.clustering.evaluator;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import org.processmining.clustering.Parallelism;
+import org.processmining.clustering.matrix.DistanceMatrix;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
 
 /**
  * @author Alexander Seeliger on 12.02.2018.
  */
 public class EvaluationUtils {
 
-    private static double distToCluster(double[][] distanceMatrix, int index, List<Integer> indexes) {
-        double dist = 0;
-        for (int other : indexes) {
-            dist += distanceMatrix[index][other];
+    /**
+     * Calculates the silhouette coefficient for the given clustering result.
+     *
+     * The distance of an item to a cluster is the sum of its distances to all items of the cluster divided by the
+     * cluster size + 1. All these sums are accumulated in a single pass over the row of the item (in ascending column
+     * order, as if each cluster was summed up separately), the rows are processed in parallel.
+     *
+     * @param distanceMatrix
+     * @param clusters
+     * @return
+     */
+    public static double silhouetteCoefficient(DistanceMatrix distanceMatrix, int[] clusters) {
+        int n = clusters.length;
+
+        // number the clusters in the order of their first occurrence
+        Map<Integer, Integer> ordinals = new LinkedHashMap<>();
+        int[] ordinal = new int[n];
+        for (int i = 0; i < n; i++) {
+            Integer index = ordinals.get(clusters[i]);
+            if (index == null) {
+                index = ordinals.size();
+                ordinals.put(clusters[i], index);
+            }
+            ordinal[i] = index;
         }
-        return dist / (indexes.size() + 1);
-    }
 
-    private static double distToOtherClusters(double[][] distanceMatrix, int index, int[] clusters) {
-        int[] clusterIndexes = Arrays.stream(clusters).distinct().toArray();
-        int clusterIndex = clusters[index];
+        int k = ordinals.size();
+        int[] clusterSizes = new int[k];
+        for (int i = 0; i < n; i++) {
+            clusterSizes[ordinal[i]]++;
+        }
 
-        double dist = Double.MAX_VALUE;
-        for (int cluster : clusterIndexes) {
-            if (cluster == clusterIndex)
-                continue;
+        double[] silhouettes = new double[n];
 
-            List<Integer> inCluster = getIndexesOfItemsInCluster(cluster, clusters);
+        Parallelism.invoke(() -> {
+            IntStream.range(0, n).parallel().forEach(i -> {
+                double[] sums = new double[k];
+                for (int j = 0; j < n; j++) {
+                    sums[ordinal[j]] += distanceMatrix.get(i, j);
+                }
 
-            double newDist = distToCluster(distanceMatrix, index, inCluster);
-            if (newDist < dist) {
-                dist = newDist;
-            }
+                silhouettes[i] = silhouette(sums, clusterSizes, ordinal[i]);
+            });
+            return null;
+        });
+
+        // sum up per cluster in the order of the clusters and items
+        double[] clusterCoefficients = new double[k];
+        for (int i = 0; i < n; i++) {
+            clusterCoefficients[ordinal[i]] += silhouettes[i];
+        }
+
+        double coefficient = 0;
+        for (int c = 0; c < k; c++) {
+            coefficient += clusterCoefficients[c] / clusterSizes[c] * clusterSizes[c];
         }
 
-        return dist;
+        return coefficient / n;
     }
 
-    private static List<Integer> getIndexesOfItemsInCluster(int clusterIndex, int[] clusters) {
-        List<Integer> inCluster = new ArrayList<>();
-        for (int i = 0; i < clusters.length; i++) {
-            if (clusters[i] == clusterIndex) {
-                inCluster.add(i);
+    private static double silhouette(double[] sums, int[] clusterSizes, int cluster) {
+        double distA = sums[cluster] / (clusterSizes[cluster] + 1);
+
+        double distB = Double.MAX_VALUE;
+        for (int other = 0; other < sums.length; other++) {
+            if (other == cluster)
+                continue;
+
+            double newDist = sums[other] / (clusterSizes[other] + 1);
+            if (newDist < distB) {
+                distB = newDist;
             }
         }
-        return inCluster;
-    }
-
-    private static double silhouette(double[][] distanceMatrix, int[] clusters, int index) {
-        double distA = distToCluster(distanceMatrix, index, getIndexesOfItemsInCluster(clusters[index], clusters));
-        double distB = distToOtherClusters(distanceMatrix, index, clusters);
 
         if (distA == distB && distA == 0) {
             return 0;
@@ -74,32 +109,4 @@ public class EvaluationUtils {
             return (distB - distA) / Math.max(distA, distB);
         }
     }
-
-    private static double silhouetteCoefficient(double[][] distanceMatrix, int[] clusters, int clusterIndex) {
-        double coefficient = 0;
-        List<Integer> items = getIndexesOfItemsInCluster(clusterIndex, clusters);
-
-        for (int index : items) {
-            coefficient += silhouette(distanceMatrix, clusters, index);
-        }
-        return coefficient / items.size();
-    }
-
-    /**
-     * Calculates the silhouette coefficient for the given clustering result.
-     *
-     * @param distanceMatrix
-     * @param clusters
-     * @return
-     */
-    public static double silhouetteCoefficient(double[][] distanceMatrix, int[] clusters) {
-        double coefficient = 0;
-
-        int[] clusterIndexes = Arrays.stream(clusters).distinct().toArray();
-        for (int cluster : clusterIndexes) {
-            coefficient += silhouetteCoefficient(distanceMatrix, clusters, cluster) * getIndexesOfItemsInCluster(cluster, clusters).size();
-        }
-
-        return coefficient / clusters.length;
-    }
 }
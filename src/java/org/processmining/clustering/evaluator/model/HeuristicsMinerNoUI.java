@@ -2,6 +2,7 @@ package org.processmining.clustering.evaluator.model;
 
 import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.Collection;
 import java.util.HashMap;
 
 import org.deckfour.xes.classification.XEventClass;
@@ -158,6 +159,122 @@ public class HeuristicsMinerNoUI {
 			metrics.incrementEndCount(endEventIndex, 1);
 		}
 
+		HeuristicsNet net = buildNet(metrics);
+
+		// parse the log to get extra parse information:
+		// (i) fitness
+		// (ii) the number of times a connection is used
+
+		HeuristicsNet[] population = new HeuristicsNet[1];
+		population[0] = net;
+
+//		ContinuousSemantics fitness1 = new ContinuousSemantics(logInfo);
+//		fitness1.calculate(population);
+
+		ImprovedContinuousSemantics fitness2 = new ImprovedContinuousSemantics(logInfo);
+		fitness2.calculate(population);
+		net.disconnectUnusedElements();
+
+		return net;
+	}
+
+	/**
+	 * Mines a heuristics net from the given variants. Every variant is counted with its multiplicity, so the metrics
+	 * are the same as if all traces of the variants were passed one by one, but the cost depends on the number of
+	 * variants only. The fitness is calculated by {@link WeightedContinuousSemantics} on the same variants.
+	 *
+	 * @param variants
+	 *            variants encoded as indexes of the event classes of the log info of this miner
+	 * @return
+	 */
+	public HeuristicsNet mine(Collection<WeightedVariant> variants) {
+		this.keys = new HashMap<String, Integer>();
+
+		for (XEventClass event : logInfo.getEventClasses(settings.getClassifier()).getClasses()) {
+			this.keys.put(event.getId(), event.getIndex());
+		}
+
+		activitiesMappingStructures = new ActivitiesMappingStructures(logInfo.getEventClasses(settings.getClassifier()));
+
+		boolean empty = true;
+		for (WeightedVariant variant : variants) {
+			if (variant.getMultiplicity() > 0) {
+				countVariant(variant.getEvents(), variant.getMultiplicity(), metrics);
+				empty = false;
+			}
+		}
+
+		if (empty) {
+			return new SimpleHeuristicsNet(new HeuristicsNetImpl(activitiesMappingStructures), metrics, settings);
+		}
+
+		HeuristicsNet net = buildNet(metrics);
+		new WeightedContinuousSemantics(net).calculate(variants);
+
+		return new SimpleHeuristicsNet(net, metrics, settings);
+	}
+
+	/**
+	 * Updates the basic relations with a trace that occurs the given number of times.
+	 *
+	 * @param events
+	 * @param multiplicity
+	 * @param metrics
+	 */
+	private void countVariant(int[] events, int multiplicity, HeuristicsMetrics metrics) {
+		if (events.length <= 0) {
+			return;
+		}
+
+		// the events before the current position (events[0..position - 1]) and their classes
+		BitSet lastEvents = new BitSet();
+		int lastEventIndex = -1;
+		int penultEventIndex = -1;
+
+		for (int position = 0; position < events.length; position++) {
+			int eventIndex = events[position];
+
+			if (!lastEvents.get(eventIndex)) {
+
+				for (int i = 0; i < position; i++) {
+
+					// update long range matrix
+					metrics.incrementLongRangeSuccessionCount(events[i], eventIndex, multiplicity);
+				}
+			}
+
+			metrics.incrementEventCount(eventIndex, multiplicity);
+
+			if (lastEventIndex != -1) {
+
+				metrics.incrementDirectSuccessionCount(lastEventIndex, eventIndex, multiplicity);
+
+				if (lastEventIndex == eventIndex)
+					metrics.incrementL1LdependencyMeasuresAll(eventIndex, multiplicity);
+			}
+
+			if (penultEventIndex == eventIndex) {
+
+				metrics.incrementSuccession2Count(eventIndex, lastEventIndex, multiplicity);
+			}
+
+			penultEventIndex = lastEventIndex;
+			lastEventIndex = eventIndex;
+			lastEvents.set(eventIndex);
+		}
+
+		metrics.incrementStartCount(events[0], multiplicity);
+		metrics.incrementEndCount(events[events.length - 1], multiplicity);
+	}
+
+	/**
+	 * Builds the dependency graph and the input and output sets from the basic relations.
+	 *
+	 * @param metrics
+	 * @return
+	 */
+	private HeuristicsNet buildNet(HeuristicsMetrics metrics) {
+
 		HNSubSet startActivities = new HNSubSet();
 		HNSubSet endActivities = new HNSubSet();
 
@@ -446,20 +563,6 @@ public class HeuristicsMinerNoUI {
 			}
 		}
 
-		// parse the log to get extra parse information:
-		// (i) fitness
-		// (ii) the number of times a connection is used
-
-		HeuristicsNet[] population = new HeuristicsNet[1];
-		population[0] = net;
-
-//		ContinuousSemantics fitness1 = new ContinuousSemantics(logInfo);
-//		fitness1.calculate(population);
-
-		ImprovedContinuousSemantics fitness2 = new ImprovedContinuousSemantics(logInfo);
-		fitness2.calculate(population);
-		net.disconnectUnusedElements();
-
 		return net;
 	}
 
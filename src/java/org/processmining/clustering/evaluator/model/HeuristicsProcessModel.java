@@ -17,14 +17,28 @@
  */
 package org.processmining.clustering.evaluator.model;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
 import javax.swing.JComponent;
 
+import org.deckfour.xes.classification.XEventClasses;
+import org.deckfour.xes.classification.XEventClassifier;
 import org.deckfour.xes.classification.XEventNameClassifier;
+import org.deckfour.xes.info.XLogInfo;
+import org.deckfour.xes.info.XLogInfoFactory;
+import org.deckfour.xes.model.XEvent;
 import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
 import org.processmining.framework.plugin.PluginContext;
 import org.processmining.models.heuristics.HeuristicsNet;
+import org.processmining.models.heuristics.impl.HNSet;
+import org.processmining.models.heuristics.impl.HNSubSet;
 import org.processmining.plugins.heuristicsnet.miner.heuristics.miner.settings.HeuristicsMinerSettings;
 import org.processmining.plugins.heuristicsnet.visualizer.HeuristicsNetAnnotatedVisualization;
+import org.xeslite.lite.factory.XFactoryLiteImpl;
 
 public class HeuristicsProcessModel implements IProcessModel {
 
@@ -55,6 +69,76 @@ public class HeuristicsProcessModel implements IProcessModel {
 		return processModel;
 	}
 
+	/**
+	 * Mines the heuristics net of a log from its variants. Each variant is given by its traces, which must be identical
+	 * with respect to the given classifier. Only the first trace of each variant is classified, so the cost does not
+	 * depend on the number of traces, and the fitness is calculated by {@link WeightedContinuousSemantics}.
+	 *
+	 * @param context
+	 * @param classifier
+	 * @param variants
+	 * @return
+	 */
+	public static HeuristicsProcessModel createInstance(PluginContext context, XEventClassifier classifier,
+			Collection<List<XTrace>> variants) {
+		HeuristicsMinerSettings settings = new HeuristicsMinerSettings();
+		settings.setClassifier(classifier);
+
+		// the event classes of a log are the event classes of one trace of each of its variants
+		XLog representatives = new XFactoryLiteImpl().createLog();
+		representatives.getClassifiers().add(classifier);
+		for (List<XTrace> traces : variants) {
+			representatives.add(traces.get(0));
+		}
+
+		XLogInfo logInfo = XLogInfoFactory.createLogInfo(representatives, classifier);
+		XEventClasses eventClasses = logInfo.getEventClasses(classifier);
+
+		// encode one trace of each variant
+		List<WeightedVariant> weightedVariants = new ArrayList<>(variants.size());
+		for (List<XTrace> traces : variants) {
+			XTrace trace = traces.get(0);
+
+			int[] events = new int[trace.size()];
+			int i = 0;
+			for (XEvent event : trace) {
+				events[i++] = eventClasses.getClassOf(event).getIndex();
+			}
+
+			weightedVariants.add(new WeightedVariant(events, traces.size()));
+		}
+
+		HeuristicsMinerNoUI miner = new HeuristicsMinerNoUI(representatives, logInfo, settings);
+		HeuristicsNet net = miner.mine(weightedVariants);
+
+		HeuristicsProcessModel processModel = new HeuristicsProcessModel(context, net);
+
+		// the weighted replay does not record the arc usage, count the arcs of the output sets instead
+		processModel.numberOfEdges = countEdges(net);
+		return processModel;
+	}
+
+	private static int countEdges(HeuristicsNet net) {
+		int edges = 0;
+		int size = net.getActivitiesMappingStructures().getActivitiesMapping().length;
+
+		for (int a = 0; a < size; a++) {
+			HNSet outputs = net.getOutputSet(a);
+			if (outputs == null)
+				continue;
+
+			BitSet targets = new BitSet(size);
+			for (int s = 0; s < outputs.size(); s++) {
+				HNSubSet output = outputs.get(s);
+				for (int i = 0; i < output.size(); i++) {
+					targets.set(output.get(i));
+				}
+			}
+			edges += targets.cardinality();
+		}
+		return edges;
+	}
+
 	@Override
 	public double getFitness() {
 		return net.getFitness();
@@ -0,0 +1,177 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.evaluator.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.processmining.models.heuristics.HeuristicsNet;
+import org.processmining.models.heuristics.impl.HNSet;
+import org.processmining.models.heuristics.impl.HNSubSet;
+
+/**
+ * Improved continuous semantics fitness of a heuristics net on weighted variants. Every variant is replayed once and
+ * its counts are multiplied by the number of traces of the variant, which gives the same totals as a replay of all
+ * traces.
+ *
+ * The replay is an own implementation of the token game of a heuristics net: firing an activity puts one token on
+ * each of its output subsets, and an activity consumes for each of its input subsets one token from an output subset
+ * of an activity in the input subset that contains it. Missing tokens are created (and counted) if an activity is not
+ * enabled, tokens left after the last event are counted as extra tokens. The fitness is then
+ *
+ * (parsed - (missing / (traces - tracesMissing + 1) + extra / (traces - tracesExtra + 1))) / events
+ *
+ * as defined for the improved continuous semantics. It follows the published definition but is not the parser of
+ * ProM's ImprovedContinuousSemantics, so its values may deviate for nets with complex splits and joins.
+ */
+public class WeightedContinuousSemantics {
+
+	private final HeuristicsNet net;
+
+	private final int size;
+
+	public WeightedContinuousSemantics(HeuristicsNet net) {
+		this.net = net;
+		this.size = net.getActivitiesMappingStructures().getActivitiesMapping().length;
+	}
+
+	/**
+	 * Calculates the fitness of the net on the given variants and stores it in the net.
+	 *
+	 * @param variants
+	 * @return
+	 */
+	public double calculate(Collection<WeightedVariant> variants) {
+		HNSubSet startActivities = net.getStartActivities();
+
+		// tokens[a][s] is the number of tokens on the output subset s of activity a
+		int[][] tokens = new int[size][];
+		for (int a = 0; a < size; a++) {
+			HNSet outputs = net.getOutputSet(a);
+			tokens[a] = new int[outputs != null ? outputs.size() : 0];
+		}
+
+		double parsed = 0;
+		double missing = 0;
+		double extra = 0;
+		double traces = 0;
+		double tracesMissing = 0;
+		double tracesExtra = 0;
+		double events = 0;
+
+		for (WeightedVariant variant : variants) {
+			int[] trace = variant.getEvents();
+			int multiplicity = variant.getMultiplicity();
+
+			for (int[] outputTokens : tokens) {
+				Arrays.fill(outputTokens, 0);
+			}
+
+			int traceParsed = 0;
+			int traceMissing = 0;
+
+			for (int position = 0; position < trace.length; position++) {
+				int b = trace[position];
+
+				int missingTokens = 0;
+				if (position > 0 || startActivities == null || !startActivities.contains(b)) {
+					missingTokens = consume(b, tokens);
+				}
+
+				if (missingTokens == 0) {
+					traceParsed++;
+				}
+				traceMissing += missingTokens;
+
+				// fire
+				for (int s = 0; s < tokens[b].length; s++) {
+					tokens[b][s]++;
+				}
+			}
+
+			int traceExtra = 0;
+			for (int[] outputTokens : tokens) {
+				for (int count : outputTokens) {
+					traceExtra += count;
+				}
+			}
+
+			parsed += (double) traceParsed * multiplicity;
+			missing += (double) traceMissing * multiplicity;
+			extra += (double) traceExtra * multiplicity;
+			traces += multiplicity;
+			events += (double) trace.length * multiplicity;
+
+			if (traceMissing > 0) {
+				tracesMissing += multiplicity;
+			}
+			if (traceExtra > 0) {
+				tracesExtra += multiplicity;
+			}
+		}
+
+		double fitness = 0;
+		if (events > 0) {
+			double punishment = missing / (traces - tracesMissing + 1) + extra / (traces - tracesExtra + 1);
+			fitness = (parsed - punishment) / events;
+		}
+
+		net.setFitness(fitness);
+		return fitness;
+	}
+
+	/**
+	 * Consumes the tokens needed to fire activity b and returns the number of missing tokens.
+	 *
+	 * @param b
+	 * @param tokens
+	 * @return
+	 */
+	private int consume(int b, int[][] tokens) {
+		HNSet inputs = net.getInputSet(b);
+		if (inputs == null) {
+			return 0;
+		}
+
+		int missingTokens = 0;
+
+		for (int t = 0; t < inputs.size(); t++) {
+			HNSubSet input = inputs.get(t);
+			boolean consumed = false;
+
+			for (int i = 0; i < input.size() && !consumed; i++) {
+				int a = input.get(i);
+				HNSet outputs = net.getOutputSet(a);
+
+				for (int s = 0; s < tokens[a].length && !consumed; s++) {
+					if (tokens[a][s] > 0 && outputs.get(s).contains(b)) {
+						tokens[a][s]--;
+						consumed = true;
+					}
+				}
+			}
+
+			if (!consumed) {
+				missingTokens++;
+			}
+		}
+
+		return missingTokens;
+	}
+
+}
@@ -0,0 +1,57 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.matrix;
+
+/**
+ * Read-only view of the weighted sum weight * first + (1 - weight) * second of two distance matrices, which is
+ * calculated on access instead of being stored.
+ */
+public class BlendedDistanceMatrix implements DistanceMatrix {
+
+    private final DistanceMatrix first;
+
+    private final DistanceMatrix second;
+
+    private final double weight;
+
+    public BlendedDistanceMatrix(DistanceMatrix first, DistanceMatrix second, double weight) {
+        if (first.size() != second.size()) {
+            throw new IllegalArgumentException("Only matrices of the same size can be blended");
+        }
+
+        this.first = first;
+        this.second = second;
+        this.weight = weight;
+    }
+
+    @Override
+    public int size() {
+        return first.size();
+    }
+
+    @Override
+    public double get(int i, int j) {
+        return weight * first.get(i, j) + (1 - weight) * second.get(i, j);
+    }
+
+    @Override
+    public void set(int i, int j, double distance) {
+        throw new UnsupportedOperationException("A blended distance matrix is read-only");
+    }
+
+}
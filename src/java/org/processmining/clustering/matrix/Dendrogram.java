@@ -0,0 +1,181 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.matrix;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Merge tree of a hierarchical clustering in the format of smile's HierarchicalClustering: merge i joins the two
+ * clusters merge[i][0] < merge[i][1], where ids below n denote elements and id n + i the cluster created by merge i.
+ * Merges are ordered by height, merges of the same height by the largest element and then the size of the merged
+ * cluster, and {@link #partition(int)} undoes the last k - 1 merges like smile does.
+ */
+public class Dendrogram {
+
+    private final int[][] merge;
+
+    private final double[] height;
+
+    private Dendrogram(int[][] merge, double[] height) {
+        this.merge = merge;
+        this.height = height;
+    }
+
+    /**
+     * Creates the dendrogram from merges given in any order that respects the tree, where merge m joins the clusters
+     * stored in the slots left[m] < right[m] into slot left[m]. Heights are squared Ward distances. The order of the
+     * dendrogram does not depend on the order of the given merges.
+     *
+     * @param size
+     * @param left
+     * @param right
+     * @param height
+     * @return
+     */
+    static Dendrogram create(int size, int[] left, int[] right, float[] height) {
+        int merges = height.length;
+
+        // a merge must never be ordered before the merges that created its clusters, even if rounding made it lower
+        double[] key = new double[merges];
+        int[] last = new int[size];
+        Arrays.fill(last, -1);
+
+        // merges of the same height are disjoint or nested, so the largest element and the size order them
+        // canonically, and a merge never comes before the merges that created its clusters
+        int[] largest = new int[merges];
+        int[] count = new int[merges];
+
+        for (int m = 0; m < merges; m++) {
+            key[m] = height[m];
+            largest[m] = right[m];
+            count[m] = 2;
+
+            if (last[left[m]] >= 0) {
+                key[m] = Math.max(key[m], key[last[left[m]]]);
+                largest[m] = Math.max(largest[m], largest[last[left[m]]]);
+                count[m] += count[last[left[m]]] - 1;
+            }
+            if (last[right[m]] >= 0) {
+                key[m] = Math.max(key[m], key[last[right[m]]]);
+                largest[m] = Math.max(largest[m], largest[last[right[m]]]);
+                count[m] += count[last[right[m]]] - 1;
+            }
+
+            last[left[m]] = m;
+        }
+
+        Integer[] order = new Integer[merges];
+        for (int m = 0; m < merges; m++) {
+            order[m] = m;
+        }
+        Arrays.sort(order, Comparator.<Integer> comparingDouble(m -> key[m]).thenComparingInt(m -> largest[m])
+                .thenComparingInt(m -> count[m]));
+
+        // relabel the slots to cluster ids
+        int[] id = new int[size];
+        for (int i = 0; i < size; i++) {
+            id[i] = i;
+        }
+
+        int[][] tree = new int[merges][2];
+        double[] heights = new double[merges];
+
+        for (int i = 0; i < merges; i++) {
+            int m = order[i];
+            int p = id[left[m]];
+            int q = id[right[m]];
+
+            tree[i][0] = Math.min(p, q);
+            tree[i][1] = Math.max(p, q);
+            heights[i] = Math.sqrt(height[m]);
+
+            id[left[m]] = size + i;
+        }
+
+        return new Dendrogram(tree, heights);
+    }
+
+    /**
+     * Returns the number of clustered elements.
+     *
+     * @return
+     */
+    public int size() {
+        return merge.length + 1;
+    }
+
+    public int[][] getTree() {
+        return merge;
+    }
+
+    public double[] getHeight() {
+        return height;
+    }
+
+    /**
+     * Cuts the tree into k clusters by undoing the last k - 1 merges and returns the cluster of each element. The
+     * clusters are numbered in the order they were created, elements first.
+     *
+     * @param k
+     * @return
+     */
+    public int[] partition(int k) {
+        int n = size();
+        if (k < 1 || k > n) {
+            throw new IllegalArgumentException("Invalid number of clusters: " + k);
+        }
+
+        int[] membership = new int[n];
+
+        // the roots of the clusters are the children of the last k - 1 merges that were not created by one of them
+        int[] roots = new int[k];
+        if (k == 1) {
+            roots[0] = 2 * n - 2;
+        } else {
+            int r = 0;
+            for (int i = 2; i <= k; i++) {
+                for (int child : merge[n - i]) {
+                    if (child < 2 * n - k) {
+                        roots[r++] = child;
+                    }
+                }
+            }
+            Arrays.sort(roots);
+        }
+
+        int[] stack = new int[n];
+        for (int i = 0; i < k; i++) {
+            int top = 0;
+            stack[top++] = roots[i];
+
+            while (top > 0) {
+                int cluster = stack[--top];
+                if (cluster < n) {
+                    membership[cluster] = i;
+                } else {
+                    stack[top++] = merge[cluster - n][0];
+                    stack[top++] = merge[cluster - n][1];
+                }
+            }
+        }
+
+        return membership;
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.matrix;
+
+/**
+ * Symmetric distance matrix with a zero diagonal.
+ */
+public interface DistanceMatrix {
+
+    /**
+     * Returns the number of rows (and columns) of the matrix.
+     *
+     * @return
+     */
+    int size();
+
+    /**
+     * Returns the distance between the elements i and j.
+     *
+     * @param i
+     * @param j
+     * @return
+     */
+    double get(int i, int j);
+
+    /**
+     * Sets the distance between the elements i and j (and j and i).
+     *
+     * @param i
+     * @param j
+     * @param distance
+     */
+    void set(int i, int j, double distance);
+
+}
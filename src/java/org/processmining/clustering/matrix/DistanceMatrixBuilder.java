@@ -0,0 +1,178 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.matrix;
+
+import org.processmining.clustering.Parallelism;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fills a {@link DistanceMatrix} in parallel. The lower triangle is split into square tiles that are distributed
+ * over a fork/join pool; every cell is computed by the same function as in a serial double loop, so the result does
+ * not depend on the number of threads.
+ */
+public class DistanceMatrixBuilder {
+
+    public static int DEFAULT_TILE_SIZE = 64;
+
+    /**
+     * Distance between the elements i and j (with j &lt; i).
+     */
+    public interface CellDistance {
+
+        double distance(int i, int j);
+
+    }
+
+    /**
+     * Receives the number of computed cells, may be called concurrently.
+     */
+    public interface ProgressListener {
+
+        void progress(long done, long total);
+
+    }
+
+    private final ForkJoinPool pool;
+
+    private int tileSize = DEFAULT_TILE_SIZE;
+
+    private ProgressListener progressListener;
+
+    public DistanceMatrixBuilder() {
+        this(Parallelism.getPool());
+    }
+
+    public DistanceMatrixBuilder(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Calculates all distances of the given matrix.
+     *
+     * @param matrix
+     * @param distance
+     * @return
+     */
+    public <T extends DistanceMatrix> T build(T matrix, CellDistance distance) {
+        int n = matrix.size();
+        int tiles = (n + tileSize - 1) / tileSize;
+        int[] tileRows = new int[tiles * (tiles + 1) / 2];
+        int[] tileColumns = new int[tileRows.length];
+
+        // enumerate the tiles of the lower triangle row by row
+        int t = 0;
+        for (int row = 0; row < tiles; row++) {
+            for (int column = 0; column <= row; column++) {
+                tileRows[t] = row;
+                tileColumns[t] = column;
+                t++;
+            }
+        }
+
+        long total = (long) n * (n - 1) / 2;
+        AtomicLong done = new AtomicLong();
+
+        pool.invoke(new TileTask(matrix, distance, tileRows, tileColumns, 0, tileRows.length, done, total));
+        return matrix;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public void setTileSize(int tileSize) {
+        if (tileSize < 1)
+            throw new IllegalArgumentException("Tile size must be positive");
+        this.tileSize = tileSize;
+    }
+
+    public ProgressListener getProgressListener() {
+        return progressListener;
+    }
+
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Computes the tiles [from, to) and splits the range in halves until a single tile is left.
+     */
+    private class TileTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final DistanceMatrix matrix;
+        private final CellDistance distance;
+        private final int[] tileRows;
+        private final int[] tileColumns;
+        private final int from;
+        private final int to;
+        private final AtomicLong done;
+        private final long total;
+
+        TileTask(DistanceMatrix matrix, CellDistance distance, int[] tileRows, int[] tileColumns, int from, int to,
+                 AtomicLong done, long total) {
+            this.matrix = matrix;
+            this.distance = distance;
+            this.tileRows = tileRows;
+            this.tileColumns = tileColumns;
+            this.from = from;
+            this.to = to;
+            this.done = done;
+            this.total = total;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new TileTask(matrix, distance, tileRows, tileColumns, from, middle, done, total),
+                        new TileTask(matrix, distance, tileRows, tileColumns, middle, to, done, total));
+                return;
+            }
+
+            for (int t = from; t < to; t++) {
+                computeTile(tileRows[t], tileColumns[t]);
+            }
+        }
+
+        private void computeTile(int tileRow, int tileColumn) {
+            int n = matrix.size();
+            int rowStart = tileRow * tileSize;
+            int rowEnd = Math.min(rowStart + tileSize, n);
+            int columnStart = tileColumn * tileSize;
+            int columnEnd = Math.min(columnStart + tileSize, n);
+
+            long cells = 0;
+            for (int i = rowStart; i < rowEnd; i++) {
+                for (int j = columnStart; j < Math.min(columnEnd, i); j++) {
+                    matrix.set(i, j, distance.distance(i, j));
+                    cells++;
+                }
+            }
+
+            long current = done.addAndGet(cells);
+            if (progressListener != null && cells > 0) {
+                progressListener.progress(current, total);
+            }
+        }
+    }
+}
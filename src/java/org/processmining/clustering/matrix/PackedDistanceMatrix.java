@@ -0,0 +1,94 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.matrix;
+
+/**
+ * Distance matrix that only stores the lower triangle without the diagonal in a single array. Row i holds the
+ * distances to the elements 0..i-1 and starts at index i * (i - 1) / 2.
+ */
+public abstract class PackedDistanceMatrix implements DistanceMatrix {
+
+    protected final int size;
+
+    protected PackedDistanceMatrix(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Creates a packed distance matrix with the given number of rows in single or double precision.
+     *
+     * @param size
+     * @param singlePrecision
+     * @return
+     */
+    public static PackedDistanceMatrix create(int size, boolean singlePrecision) {
+        return singlePrecision ? new PackedFloatDistanceMatrix(size) : new PackedDoubleDistanceMatrix(size);
+    }
+
+    /**
+     * Returns the number of stored cells for the given number of rows.
+     *
+     * @param size
+     * @return
+     */
+    protected static int length(int size) {
+        long length = (long) size * (size - 1) / 2;
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many elements for a packed distance matrix: " + size);
+        }
+        return (int) length;
+    }
+
+    /**
+     * Returns the array index of the cell (i, j) with i != j.
+     *
+     * @param i
+     * @param j
+     * @return
+     */
+    protected static int index(int i, int j) {
+        return i > j ? (int) ((long) i * (i - 1) / 2) + j : (int) ((long) j * (j - 1) / 2) + i;
+    }
+
+    /**
+     * Returns the new matrix weight * this + (1 - weight) * other in the same precision. Both matrices must have the
+     * same size and precision.
+     *
+     * @param weight
+     * @param other
+     * @return
+     */
+    public abstract PackedDistanceMatrix blend(double weight, PackedDistanceMatrix other);
+
+    /**
+     * Checks that the given matrix can be blended with this matrix.
+     *
+     * @param other
+     */
+    protected void checkBlendable(PackedDistanceMatrix other) {
+        if (other.getClass() != getClass() || other.size != size) {
+            throw new IllegalArgumentException("Only matrices of the same size and precision can be blended");
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.matrix;
+
+/**
+ * Packed lower-triangular distance matrix in double precision, half of the memory of a full double matrix.
+ */
+public class PackedDoubleDistanceMatrix extends PackedDistanceMatrix {
+
+    private final double[] distances;
+
+    public PackedDoubleDistanceMatrix(int size) {
+        this(size, new double[length(size)]);
+    }
+
+    private PackedDoubleDistanceMatrix(int size, double[] distances) {
+        super(size);
+        this.distances = distances;
+    }
+
+    @Override
+    public double get(int i, int j) {
+        if (i == j) {
+            return 0;
+        }
+        return distances[index(i, j)];
+    }
+
+    @Override
+    public void set(int i, int j, double distance) {
+        if (i == j) {
+            throw new IllegalArgumentException("The diagonal of a distance matrix is fixed to zero");
+        }
+        distances[index(i, j)] = distance;
+    }
+
+    @Override
+    public PackedDoubleDistanceMatrix blend(double weight, PackedDistanceMatrix other) {
+        checkBlendable(other);
+
+        // a single pass over both arrays, which the JIT compiles to vector instructions
+        double[] blended = ((PackedDoubleDistanceMatrix) other).distances.clone();
+        double rest = 1 - weight;
+        for (int k = 0; k < blended.length; k++) {
+            blended[k] = weight * distances[k] + rest * blended[k];
+        }
+
+        return new PackedDoubleDistanceMatrix(size, blended);
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.matrix;
+
+/**
+ * Ward's hierarchical clustering with the nearest-neighbour chain algorithm. The squared distances are written into
+ * the given matrix and updated in place with the Lance-Williams formula, in the same float arithmetic as smile's
+ * WardLinkage, so the matrix is consumed by the clustering. Since Ward's linkage is reducible, following chains of
+ * nearest neighbours until two clusters are reciprocal nearest neighbours yields the same merges as always merging
+ * the globally closest pair, in O(n^2) time and O(n) additional memory.
+ * <p>
+ * Tied distances are broken deterministically: chains start at the smallest active slot, and a cluster's nearest
+ * neighbour is its predecessor in the chain if that is among the closest, otherwise the closest cluster in the
+ * smallest slot. The merge tree therefore only depends on the matrix. Without ties it is identical to smile's, with
+ * ties it is an equally valid Ward tree that may merge tied pairs in a different order than smile's FastPair.
+ */
+public class WardClustering {
+
+    private final DistanceMatrix matrix;
+
+    public WardClustering(DistanceMatrix matrix) {
+        this.matrix = matrix;
+    }
+
+    /**
+     * Clusters the elements of the matrix and returns the merge tree. The matrix is overwritten.
+     *
+     * @return
+     */
+    public Dendrogram cluster() {
+        int size = matrix.size();
+
+        // Ward's linkage works on squared distances
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < i; j++) {
+                float d = (float) matrix.get(i, j);
+                matrix.set(i, j, d * d);
+            }
+        }
+
+        int[] n = new int[size];
+        boolean[] active = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            n[i] = 1;
+            active[i] = true;
+        }
+
+        // merges in the order they are found, the merged cluster keeps the smaller slot
+        int merges = Math.max(0, size - 1);
+        int[] left = new int[merges];
+        int[] right = new int[merges];
+        float[] height = new float[merges];
+
+        int[] chain = new int[size];
+        int length = 0;
+        int next = 0;
+
+        for (int m = 0; m < merges; m++) {
+            if (length == 0) {
+                while (!active[next]) {
+                    next++;
+                }
+                chain[length++] = next;
+            }
+
+            // grow the chain until its last two clusters are reciprocal nearest neighbours
+            int a;
+            int b;
+            while (true) {
+                a = chain[length - 1];
+
+                // prefer the predecessor on ties, otherwise the chain might not terminate
+                b = length > 1 ? chain[length - 2] : -1;
+                float min = b >= 0 ? d(a, b) : Float.POSITIVE_INFINITY;
+
+                for (int k = 0; k < size; k++) {
+                    if (k == a || !active[k])
+                        continue;
+
+                    float d = d(a, k);
+                    if (d < min || b < 0) {
+                        min = d;
+                        b = k;
+                    }
+                }
+
+                if (length > 1 && b == chain[length - 2]) {
+                    break;
+                }
+                chain[length++] = b;
+            }
+            length -= 2;
+
+            int i = Math.min(a, b);
+            int j = Math.max(a, b);
+
+            left[m] = i;
+            right[m] = j;
+            height[m] = d(i, j);
+
+            merge(i, j, n, active);
+        }
+
+        return Dendrogram.create(size, left, right, height);
+    }
+
+    private float d(int i, int j) {
+        return (float) matrix.get(i, j);
+    }
+
+    /**
+     * Merges cluster j into cluster i and updates the distances of cluster i with the Lance-Williams formula.
+     *
+     * @param i
+     * @param j
+     * @param n
+     * @param active
+     */
+    private void merge(int i, int j, int[] n, boolean[] active) {
+        float sum = n[i] + n[j];
+        float dij = d(i, j);
+
+        active[j] = false;
+
+        for (int k = 0; k < n.length; k++) {
+            if (k == i || !active[k])
+                continue;
+
+            matrix.set(k, i, (d(k, i) * (n[i] + n[k]) + d(k, j) * (n[j] + n[k]) - dij * n[k]) / (sum + n[k]));
+        }
+
+        n[i] += n[j];
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.model;
+
+import java.util.Collection;
+
+/**
+ * Immutable itemset encoded as a bitset over the item ids of a transaction database, bit i is set if item i is
+ * contained.
+ */
+public class BitItemset {
+
+	private final long[] words;
+
+	private final int size;
+
+	/**
+	 * Encodes the given items, all items must be in the range 0..maxItem.
+	 *
+	 * @param items
+	 * @param maxItem
+	 */
+	public BitItemset(Collection<Integer> items, int maxItem) {
+		this.words = new long[(maxItem >> 6) + 1];
+
+		for (int item : items) {
+			words[item >> 6] |= 1L << item;
+		}
+
+		int size = 0;
+		for (long word : words) {
+			size += Long.bitCount(word);
+		}
+		this.size = size;
+	}
+
+	/**
+	 * Returns the number of items contained in both itemsets.
+	 *
+	 * @param other
+	 * @return
+	 */
+	public int intersectionSize(BitItemset other) {
+		long[] w1 = words;
+		long[] w2 = other.words;
+		int length = Math.min(w1.length, w2.length);
+
+		int count = 0;
+		for (int i = 0; i < length; i++) {
+			count += Long.bitCount(w1[i] & w2[i]);
+		}
+		return count;
+	}
+
+	public int size() {
+		return size;
+	}
+
+}
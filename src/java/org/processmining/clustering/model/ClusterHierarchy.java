@@ -0,0 +1,74 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.model;
+
+import java.util.List;
+import java.util.Map;
+
+import org.processmining.clustering.matrix.Dendrogram;
+
+/**
+ * The itemsets of a minimum support, their variants and their dendrogram for a weighting. Partitions for any number
+ * of clusters are cut from the dendrogram. The distances are not kept, they are provided by {@link ItemsetDistances}.
+ */
+public class ClusterHierarchy {
+
+	private final List<Itemset> itemsets;
+
+	private final Map<Itemset, Variants> variants;
+
+	private final Dendrogram dendrogram;
+
+	public ClusterHierarchy(List<Itemset> itemsets, Map<Itemset, Variants> variants, Dendrogram dendrogram) {
+		this.itemsets = itemsets;
+		this.variants = variants;
+		this.dendrogram = dendrogram;
+	}
+
+	/**
+	 * Returns the number of clustered itemsets.
+	 *
+	 * @return
+	 */
+	public int size() {
+		return itemsets.size();
+	}
+
+	/**
+	 * Returns the cluster of each itemset for the given number of clusters.
+	 *
+	 * @param numClusters
+	 * @return
+	 */
+	public int[] partition(int numClusters) {
+		return dendrogram.partition(numClusters);
+	}
+
+	public List<Itemset> getItemsets() {
+		return itemsets;
+	}
+
+	public Map<Itemset, Variants> getVariants() {
+		return variants;
+	}
+
+	public Dendrogram getDendrogram() {
+		return dendrogram;
+	}
+
+}
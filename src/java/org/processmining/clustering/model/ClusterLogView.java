@@ -0,0 +1,84 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.model;
+
+import java.util.Collection;
+
+import org.deckfour.xes.model.XLog;
+import org.xeslite.lite.factory.XFactoryLiteImpl;
+
+/**
+ * Lightweight view of the sub-log of a cluster, given by the variants of the cluster and the indexes of their traces
+ * in the parent log. The traces are only copied into a new log when the view is materialized.
+ */
+public class ClusterLogView {
+
+	private final XLog parent;
+
+	private final Collection<Variant> variants;
+
+	private final int[][] variantTraceIndices;
+
+	private final int size;
+
+	/**
+	 * @param parent
+	 * @param variants
+	 * @param variantTraceIndices
+	 *            indexes of the traces of each variant in the parent log, indexed by the variant id
+	 */
+	public ClusterLogView(XLog parent, Collection<Variant> variants, int[][] variantTraceIndices) {
+		this.parent = parent;
+		this.variants = variants;
+		this.variantTraceIndices = variantTraceIndices;
+
+		int size = 0;
+		for (Variant variant : variants) {
+			size += variantTraceIndices[variant.getId()].length;
+		}
+		this.size = size;
+	}
+
+	/**
+	 * Returns the number of traces of the view.
+	 *
+	 * @return
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Creates a new log with the traces of the view (in the order of the variants).
+	 *
+	 * @return
+	 */
+	public XLog materialize() {
+		XLog log = new XFactoryLiteImpl().createLog(parent.getAttributes());
+		log.getClassifiers().addAll(parent.getClassifiers());
+
+		for (Variant variant : variants) {
+			for (int index : variantTraceIndices[variant.getId()]) {
+				log.add(parent.get(index));
+			}
+		}
+
+		return log;
+	}
+
+}
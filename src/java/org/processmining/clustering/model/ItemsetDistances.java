@@ -0,0 +1,95 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.model;
+
+import java.util.List;
+import java.util.Map;
+
+import org.processmining.clustering.matrix.BlendedDistanceMatrix;
+import org.processmining.clustering.matrix.DistanceMatrix;
+import org.processmining.clustering.matrix.PackedDistanceMatrix;
+
+/**
+ * The frequent itemsets of a minimum support with their sequence and itemset distances stored as separate
+ * components. The distance matrix for a weighting w1 is w1 * sequence distances + (1 - w1) * itemset distances, so
+ * any weighting can be clustered without calculating distances again.
+ */
+public class ItemsetDistances {
+
+	private final List<Itemset> itemsets;
+
+	private final Map<Itemset, Variants> variants;
+
+	private final PackedDistanceMatrix sequenceDistances;
+
+	private final PackedDistanceMatrix itemsetDistances;
+
+	public ItemsetDistances(List<Itemset> itemsets, Map<Itemset, Variants> variants,
+			PackedDistanceMatrix sequenceDistances, PackedDistanceMatrix itemsetDistances) {
+		this.itemsets = itemsets;
+		this.variants = variants;
+		this.sequenceDistances = sequenceDistances;
+		this.itemsetDistances = itemsetDistances;
+	}
+
+	/**
+	 * Returns the number of itemsets.
+	 *
+	 * @return
+	 */
+	public int size() {
+		return itemsets.size();
+	}
+
+	/**
+	 * Returns a new distance matrix for the given weighting, which may be modified.
+	 *
+	 * @param w1
+	 * @return
+	 */
+	public PackedDistanceMatrix blend(double w1) {
+		return sequenceDistances.blend(w1, itemsetDistances);
+	}
+
+	/**
+	 * Returns a read-only view of the distance matrix for the given weighting.
+	 *
+	 * @param w1
+	 * @return
+	 */
+	public DistanceMatrix getDistanceMatrix(double w1) {
+		return new BlendedDistanceMatrix(sequenceDistances, itemsetDistances, w1);
+	}
+
+	public List<Itemset> getItemsets() {
+		return itemsets;
+	}
+
+	public Map<Itemset, Variants> getVariants() {
+		return variants;
+	}
+
+	public PackedDistanceMatrix getSequenceDistances() {
+		return sequenceDistances;
+	}
+
+	public PackedDistanceMatrix getItemsetDistances() {
+		return itemsetDistances;
+	}
+
+}
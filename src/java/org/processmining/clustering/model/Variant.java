@@ -17,25 +17,64 @@
  */
 package org.processmining.clustering.model;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 
-public class Variant extends ArrayList<Integer> {
-	
-	private static final long serialVersionUID = 1L;
+/**
+ * Immutable sequence of event class indexes. The hash code is computed once, it is the same as the one of the
+ * equivalent List&lt;Integer&gt;. Equality only depends on the events, not on the dense id.
+ */
+public final class Variant {
+
+	private final int[] events;
 
-	public Variant() {
-		super();
+	private final int hash;
+
+	/**
+	 * Dense index of the variant within its log (-1 if not assigned)
+	 */
+	private final int id;
+
+	public Variant(int[] events) {
+		this(events, Arrays.hashCode(events), -1);
 	}
-	
-	public Variant(Collection<Integer> list) {
-		super(list);
+
+	private Variant(int[] events, int hash, int id) {
+		this.events = events;
+		this.hash = hash;
+		this.id = id;
+	}
+
+	/**
+	 * Returns the same variant with the given dense id.
+	 *
+	 * @param id
+	 * @return
+	 */
+	public Variant withId(int id) {
+		return new Variant(events, hash, id);
+	}
+
+	public int get(int index) {
+		return events[index];
+	}
+
+	public int size() {
+		return events.length;
+	}
+
+	/**
+	 * Returns the events of the variant. The returned array is shared and must not be modified.
+	 *
+	 * @return
+	 */
+	public int[] getEvents() {
+		return events;
 	}
 
 	public String toVariantString() {
 		StringBuilder variantString = new StringBuilder();
 		
-		for (Integer item : this) {
+		for (int item : events) {
             variantString.append(":");
             variantString.append(item);
             variantString.append(":");
@@ -43,5 +82,32 @@ public class Variant extends ArrayList<Integer> {
 		
 		return variantString.toString();
 	}
+
+	public int getId() {
+		return id;
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (this == object) {
+			return true;
+		}
+		if (!(object instanceof Variant)) {
+			return false;
+		}
+
+		Variant other = (Variant) object;
+		return hash == other.hash && Arrays.equals(events, other.events);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(events);
+	}
 	
-}
\ No newline at end of file
+}
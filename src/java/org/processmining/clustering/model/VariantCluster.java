@@ -34,6 +34,8 @@ public class VariantCluster {
 
 	private XLog log;
 
+	private ClusterLogView logView;
+
 	private double silhouette = 0;
 
 	public VariantCluster(Set<FieldValue> itemsets, Set<Variant> variants) {
@@ -74,11 +76,42 @@ public class VariantCluster {
 		this.silhouette = silhouette;
 	}
 
-	public XLog getLog() {
+	/**
+	 * Returns the log of the cluster, a log view is materialized on first access.
+	 *
+	 * @return
+	 */
+	public synchronized XLog getLog() {
+		if (log == null && logView != null) {
+			log = logView.materialize();
+		}
 		return log;
 	}
 
-	public void setLog(XLog log) {
+	public synchronized void setLog(XLog log) {
 		this.log = log;
+		this.logView = null;
+	}
+
+	/**
+	 * Sets a view of the log of the cluster that is only materialized if the log is requested.
+	 *
+	 * @param logView
+	 */
+	public synchronized void setLogView(ClusterLogView logView) {
+		this.log = null;
+		this.logView = logView;
+	}
+
+	/**
+	 * Returns the number of traces of the cluster without materializing its log.
+	 *
+	 * @return
+	 */
+	public synchronized int getNumberOfTraces() {
+		if (log != null) {
+			return log.size();
+		}
+		return logView != null ? logView.size() : 0;
 	}
 }
@@ -0,0 +1,201 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.similarity;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bit-parallel Levenshtein distance (Myers 1999, in the formulation of Hyyrö 2003). The shorter sequence is encoded
+ * as the pattern, its vertical deltas of one DP column are stored in bit vectors of 64 rows each, and every symbol of
+ * the longer sequence advances all blocks with a few word operations. Patterns up to 64 symbols need a single word,
+ * longer patterns are split into blocks that pass the horizontal delta from one block to the next.
+ */
+public class BitParallelLevenshtein {
+
+    /**
+     * Symbol ranges up to this size are looked up in an array, larger ones in a map
+     */
+    private static final int MAX_ARRAY_ALPHABET = 1 << 12;
+
+    /**
+     * Returns the (not normalized) Levenshtein distance of the given sequences.
+     *
+     * @param s
+     * @param t
+     * @return
+     */
+    public static int getDistance(int[] s, int[] t) {
+        // the shorter sequence is the pattern
+        int[] pattern = s.length <= t.length ? s : t;
+        int[] text = s.length <= t.length ? t : s;
+
+        if (pattern.length == 0) {
+            return text.length;
+        }
+
+        PatternMasks masks = new PatternMasks(pattern);
+        if (pattern.length <= 64) {
+            return getSingleWordDistance(masks, pattern.length, text);
+        }
+        return getMultiWordDistance(masks, pattern.length, text);
+    }
+
+    private static int getSingleWordDistance(PatternMasks masks, int m, int[] text) {
+        long last = 1L << (m - 1);
+
+        long pv = -1L;
+        long mv = 0L;
+        int score = m;
+
+        for (int c : text) {
+            long eq = masks.get(c, 0);
+
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+
+            if ((ph & last) != 0) {
+                score++;
+            } else if ((mh & last) != 0) {
+                score--;
+            }
+
+            // the first row of the DP matrix increases by one in each column
+            ph = (ph << 1) | 1L;
+            mh = mh << 1;
+
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+        }
+
+        return score;
+    }
+
+    private static int getMultiWordDistance(PatternMasks masks, int m, int[] text) {
+        int blocks = (m + 63) >>> 6;
+        long last = 1L << ((m - 1) & 63);
+
+        long[] pv = new long[blocks];
+        long[] mv = new long[blocks];
+        for (int b = 0; b < blocks; b++) {
+            pv[b] = -1L;
+        }
+
+        int score = m;
+
+        for (int c : text) {
+            // the first row of the DP matrix increases by one in each column
+            int hin = 1;
+
+            for (int b = 0; b < blocks; b++) {
+                long eq = masks.get(c, b);
+                long p = pv[b];
+                long n = mv[b];
+
+                long xv = eq | n;
+                if (hin < 0) {
+                    eq |= 1L;
+                }
+                long xh = (((eq & p) + p) ^ p) | eq;
+
+                long ph = n | ~(xh | p);
+                long mh = p & xh;
+
+                long high = b == blocks - 1 ? last : Long.MIN_VALUE;
+                int hout = (ph & high) != 0 ? 1 : (mh & high) != 0 ? -1 : 0;
+
+                ph <<= 1;
+                mh <<= 1;
+                if (hin < 0) {
+                    mh |= 1L;
+                } else if (hin > 0) {
+                    ph |= 1L;
+                }
+
+                pv[b] = mh | ~(xv | ph);
+                mv[b] = ph & xv;
+
+                hin = hout;
+            }
+
+            score += hin;
+        }
+
+        return score;
+    }
+
+    /**
+     * Match masks of the pattern, the bit i of block b is set if the symbol occurs at position 64 * b + i.
+     */
+    private static class PatternMasks {
+
+        private final int offset;
+
+        private final long[][] array;
+
+        private final Map<Integer, long[]> map;
+
+        PatternMasks(int[] pattern) {
+            int blocks = (pattern.length + 63) >>> 6;
+
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (int c : pattern) {
+                min = Math.min(min, c);
+                max = Math.max(max, c);
+            }
+
+            if ((long) max - min < MAX_ARRAY_ALPHABET) {
+                this.offset = min;
+                this.array = new long[max - min + 1][];
+                this.map = null;
+
+                for (int i = 0; i < pattern.length; i++) {
+                    int symbol = pattern[i] - min;
+                    if (array[symbol] == null) {
+                        array[symbol] = new long[blocks];
+                    }
+                    array[symbol][i >>> 6] |= 1L << i;
+                }
+            } else {
+                this.offset = 0;
+                this.array = null;
+                this.map = new HashMap<>();
+
+                for (int i = 0; i < pattern.length; i++) {
+                    map.computeIfAbsent(pattern[i], x -> new long[blocks])[i >>> 6] |= 1L << i;
+                }
+            }
+        }
+
+        long get(int c, int block) {
+            long[] masks;
+            if (array != null) {
+                long symbol = (long) c - offset;
+                masks = symbol >= 0 && symbol < array.length ? array[(int) symbol] : null;
+            } else {
+                masks = map.get(c);
+            }
+            return masks != null ? masks[block] : 0L;
+        }
+    }
+
+}
@@ -17,6 +17,7 @@
  */
 package org.processmining.clustering.similarity;
 
+import org.processmining.clustering.model.BitItemset;
 import org.processmining.clustering.model.Itemset;
 
 public class ItemsetSimilarity {
@@ -30,4 +31,17 @@ public class ItemsetSimilarity {
 		return 1 - (2 * inBoth / (i1.size() + i2.size()));
 	}
 
+	/**
+	 * Calculates the same Dice distance as {@link #calculateItemsetDistance(Itemset, Itemset)} on bitset encoded
+	 * itemsets without allocating.
+	 *
+	 * @param i1
+	 * @param i2
+	 * @return
+	 */
+	public static double calculateItemsetDistance(BitItemset i1, BitItemset i2) {
+		double inBoth = i1.intersectionSize(i2);
+		return 1 - (2 * inBoth / (i1.size() + i2.size()));
+	}
+
 }
@@ -0,0 +1,72 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.similarity;
+
+import org.processmining.clustering.cache.DoubleCache;
+import org.processmining.clustering.model.Variant;
+
+/**
+ * Variant distances that are calculated on first use and kept in a bounded cache, keyed by the pair of variant ids
+ * without boxing and locked in stripes, so the parallel distance matrix builds do not contend on it. Used for logs
+ * with too many variants for a precomputed distance matrix.
+ */
+public class LazyVariantDistances implements VariantDistances {
+
+    private final DoubleCache cache;
+
+    /**
+     * @param maximumSize maximum number of cached variant pairs
+     */
+    public LazyVariantDistances(int maximumSize) {
+        this.cache = new DoubleCache("Variant distance cache", maximumSize);
+    }
+
+    @Override
+    public double getDistance(Variant v1, Variant v2) {
+        int i = v1.getId();
+        int j = v2.getId();
+
+        // variants without a dense id (not created by the log) are compared directly and not cached
+        if (i < 0 || j < 0) {
+            return v1.equals(v2) ? 0 : SequenceSimilarity.getLevenshteinDistance(v1, v2);
+        }
+
+        if (i == j) {
+            return 0;
+        }
+
+        // the larger id is at least 1, so the key is never 0
+        long key = i > j ? ((long) i << 32) | j : ((long) j << 32) | i;
+
+        return cache.get(key, () -> SequenceSimilarity.getLevenshteinDistance(v1, v2));
+    }
+
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    @Override
+    public String toString() {
+        return cache.toString();
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.similarity;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.processmining.clustering.Parallelism;
+import org.processmining.clustering.model.Variant;
+
+/**
+ * Variant distances computed once for all pairs of variants and stored as a packed lower triangular matrix indexed
+ * by the variant ids.
+ */
+public class PrecomputedVariantDistances implements VariantDistances {
+
+    private final int size;
+
+    private final double[] distances;
+
+    /**
+     * Calculates the distances of all pairs of the given variants in the shared pool. The variant at index i of the list must
+     * have the id i.
+     *
+     * @param variants
+     */
+    public PrecomputedVariantDistances(List<Variant> variants) {
+        this.size = variants.size();
+
+        for (int i = 0; i < size; i++) {
+            if (variants.get(i).getId() != i) {
+                throw new IllegalArgumentException("Variant at index " + i + " has id " + variants.get(i).getId());
+            }
+        }
+
+        long length = (long) size * (size - 1) / 2;
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many variants for a precomputed distance matrix: " + size);
+        }
+        this.distances = new double[(int) length];
+
+        Parallelism.invoke(() -> {
+            IntStream.range(1, size).parallel().forEach(i -> {
+                Variant v1 = variants.get(i);
+                int offset = index(i, 0);
+
+                for (int j = 0; j < i; j++) {
+                    distances[offset + j] = SequenceSimilarity.getLevenshteinDistance(v1, variants.get(j));
+                }
+            });
+            return null;
+        });
+    }
+
+    private static int index(int i, int j) {
+        return (int) ((long) i * (i - 1) / 2) + j;
+    }
+
+    @Override
+    public double getDistance(Variant v1, Variant v2) {
+        int i = v1.getId();
+        int j = v2.getId();
+
+        // variants without a dense id of the precomputed variants are compared directly
+        if (i < 0 || j < 0 || i >= size || j >= size) {
+            return v1.equals(v2) ? 0 : SequenceSimilarity.getLevenshteinDistance(v1, v2);
+        }
+
+        if (i == j) {
+            return 0;
+        }
+
+        return i > j ? distances[index(i, j)] : distances[index(j, i)];
+    }
+
+    /**
+     * Unpacks the distances of the variant with the given id to all variants (indexed by their ids) into the given
+     * array.
+     *
+     * @param id
+     * @param row
+     */
+    public void getRow(int id, double[] row) {
+        System.arraycopy(distances, index(id, 0), row, 0, id);
+        row[id] = 0;
+
+        for (int k = id + 1; k < size; k++) {
+            row[k] = distances[index(k, id)];
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+}
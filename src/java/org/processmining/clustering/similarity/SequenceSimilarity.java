@@ -20,6 +20,7 @@ package org.processmining.clustering.similarity;
 import org.apache.commons.math3.stat.StatUtils;
 import org.deckfour.xes.info.XLogInfo;
 import org.deckfour.xes.model.XTrace;
+import org.processmining.clustering.Configuration;
 import org.processmining.clustering.model.Variant;
 import org.processmining.log.utils.XUtils;
 
@@ -62,6 +63,17 @@ public class SequenceSimilarity {
         return getLevenshteinDistance(sequence1, sequence2);
     }
 
+    /**
+     * Calculates the Levenshtein-Dammerau distance for two variants.
+     *
+     * @param v1
+     * @param v2
+     * @return
+     */
+    public static double getLevenshteinDistance(Variant v1, Variant v2) {
+        return getLevenshteinDistance(v1.getEvents(), v2.getEvents());
+    }
+
     /**
      * Calculates the Levenshtein-Dammerau distance for two sequences.
      *
@@ -74,6 +86,22 @@ public class SequenceSimilarity {
             throw new IllegalArgumentException("Strings must not be null");
         }
 
+        return getLevenshteinDistance(s.stream().mapToInt(Integer::intValue).toArray(),
+                t.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Calculates the Levenshtein-Dammerau distance for two sequences.
+     *
+     * @param s
+     * @param t
+     * @return
+     */
+    public static double getLevenshteinDistance(int[] s, int[] t) {
+        if (s == null || t == null) {
+            throw new IllegalArgumentException("Strings must not be null");
+        }
+
         /*
          * The difference between this impl. and the previous is that, rather than
          * creating and retaining a matrix of size s.length()+1 by t.length()+1, we
@@ -93,8 +121,8 @@ public class SequenceSimilarity {
          * large strings.
          */
 
-        int n = s.size(); // length of s
-        int m = t.size(); // length of t
+        int n = s.length; // length of s
+        int m = t.length; // length of t
 
         if (n == 0) {
             return m;
@@ -102,6 +130,10 @@ public class SequenceSimilarity {
             return n;
         }
 
+        if (Configuration.EDIT_DISTANCE_ENGINE == EditDistanceEngine.BIT_PARALLEL) {
+            return (double) BitParallelLevenshtein.getDistance(s, t) / (double) Math.max(n, m);
+        }
+
         int p[] = new int[n + 1]; // 'previous' cost array, horizontally
         int d[] = new int[n + 1]; // cost array, horizontally
         int _d[]; // placeholder to assist in swapping p and d
@@ -110,7 +142,7 @@ public class SequenceSimilarity {
         int i; // iterates through s
         int j; // iterates through t
 
-        Integer t_j; // jth character of t
+        int t_j; // jth character of t
 
         int cost; // cost
 
@@ -119,11 +151,11 @@ public class SequenceSimilarity {
         }
 
         for (j = 1; j <= m; j++) {
-            t_j = t.get(j - 1);
+            t_j = t[j - 1];
             d[0] = j;
 
             for (i = 1; i <= n; i++) {
-                cost = s.get(i - 1).equals(t_j) ? 0 : 1;
+                cost = s[i - 1] == t_j ? 0 : 1;
                 // minimum of cell to the left+1, to the top+1, diagonally left and up +cost
                 d[i] = Math.min(Math.min(d[i - 1] + 1, p[i] + 1), p[i - 1] + cost);
             }
@@ -172,10 +204,23 @@ public class SequenceSimilarity {
      * @return
      */
     public static double calculateVariantDistance(Collection<Variant> variants1, Collection<Variant> variants2) {
+        return calculateVariantDistance(SequenceSimilarity::getLevenshteinDistance, variants1, variants2);
+    }
+
+    /**
+     * Calculates the difference of the given variants using the given variant distances.
+     *
+     * @param distances
+     * @param variants1
+     * @param variants2
+     * @return
+     */
+    public static double calculateVariantDistance(VariantDistances distances, Collection<Variant> variants1,
+                                                  Collection<Variant> variants2) {
         double dist = 0;
         for (Variant v1 : variants1) {
             for (Variant v2 : variants2) {
-                dist += getLevenshteinDistance(v1, v2);
+                dist += distances.getDistance(v1, v2);
             }
         }
 
@@ -191,7 +236,20 @@ public class SequenceSimilarity {
      * @return
      */
     public static double calculateVariantDistanceToCluser(Collection<Variant> cluster, Variant variant) {
-        double dist = cluster.stream().mapToDouble(x -> getLevenshteinDistance(x, variant)).sum();
+        return calculateVariantDistanceToCluser(SequenceSimilarity::getLevenshteinDistance, cluster, variant);
+    }
+
+    /**
+     * Calculate the distance of a variant to all variants in the given cluster using the given variant distances.
+     *
+     * @param distances
+     * @param cluster
+     * @param variant
+     * @return
+     */
+    public static double calculateVariantDistanceToCluser(VariantDistances distances, Collection<Variant> cluster,
+                                                          Variant variant) {
+        double dist = cluster.stream().mapToDouble(x -> distances.getDistance(x, variant)).sum();
         dist /= cluster.size();
 
         return dist;
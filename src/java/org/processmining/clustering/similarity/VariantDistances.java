@@ -0,0 +1,36 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.similarity;
+
+import org.processmining.clustering.model.Variant;
+
+/**
+ * Pairwise (normalized) edit distances between the variants of a log.
+ */
+public interface VariantDistances {
+
+    /**
+     * Returns the normalized Levenshtein distance of the two variants.
+     *
+     * @param v1
+     * @param v2
+     * @return
+     */
+    double getDistance(Variant v1, Variant v2);
+
+}
@@ -0,0 +1,209 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.similarity;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseTriplet;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.ops.ConvertDMatrixStruct;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.processmining.clustering.Parallelism;
+import org.processmining.clustering.matrix.DistanceMatrix;
+import org.processmining.clustering.matrix.DistanceMatrixBuilder.ProgressListener;
+import org.processmining.clustering.model.Variant;
+
+/**
+ * Average variant distances between all pairs of variant sets, i.e.
+ * {@link SequenceSimilarity#calculateVariantDistance(VariantDistances, Collection, Collection)} for every pair, as
+ * the matrix product A * V * A^T. A is the sparse set x variant incidence matrix with rows normalized by the set
+ * sizes and V the variant distance matrix. The product is computed in blocks of columns, which are distributed
+ * over a fork/join pool: the block B of A * V * A^T is A * (A_B * V)^T. V stays packed, A_B * V is accumulated from
+ * the rows of V of the variants in the block, which are unpacked one at a time.
+ */
+public class VariantSetDistances {
+
+    public static int DEFAULT_BLOCK_SIZE = 256;
+
+    private final PrecomputedVariantDistances variantDistances;
+
+    private final ForkJoinPool pool;
+
+    private int blockSize = DEFAULT_BLOCK_SIZE;
+
+    private ProgressListener progressListener;
+
+    public VariantSetDistances(PrecomputedVariantDistances variantDistances) {
+        this(variantDistances, Parallelism.getPool());
+    }
+
+    public VariantSetDistances(PrecomputedVariantDistances variantDistances, ForkJoinPool pool) {
+        this.variantDistances = variantDistances;
+        this.pool = pool;
+    }
+
+    /**
+     * Calculates the distances between all given variant sets into the given matrix.
+     *
+     * @param matrix
+     * @param variantSets
+     * @return
+     */
+    public <T extends DistanceMatrix> T build(T matrix, List<? extends Collection<Variant>> variantSets) {
+        int n = variantSets.size();
+        if (matrix.size() != n) {
+            throw new IllegalArgumentException("Matrix size " + matrix.size() + " does not match " + n + " variant sets");
+        }
+
+        int blocks = (n + blockSize - 1) / blockSize;
+        long total = (long) n * (n - 1) / 2;
+        AtomicLong done = new AtomicLong();
+
+        pool.invoke(ForkJoinTask.adapt(() -> IntStream.range(0, blocks).parallel().forEach(block -> {
+            int from = block * blockSize;
+            int to = Math.min(n, from + blockSize);
+
+            // only the rows below the block are needed for the lower triangle
+            DMatrixRMaj product = multiply(variantSets, from, to);
+
+            for (int j = from; j < to; j++) {
+                for (int i = j + 1; i < n; i++) {
+                    matrix.set(i, j, product.unsafe_get(i - from, j - from));
+                }
+            }
+
+            if (progressListener != null) {
+                long cells = (long) (to - from) * (2 * n - from - to - 1) / 2;
+                progressListener.progress(done.addAndGet(cells), total);
+            }
+        })));
+
+        return matrix;
+    }
+
+    /**
+     * Returns A_[from, n) * V * A_[from, to)^T.
+     *
+     * @param variantSets
+     * @param from
+     * @param to
+     * @return
+     */
+    private DMatrixRMaj multiply(List<? extends Collection<Variant>> variantSets, int from, int to) {
+        int n = variantSets.size();
+        int m = variantDistances.size();
+
+        // the (variant, set) entries of A_B grouped by variant, so that every row of V is unpacked once
+        int nonZeros = 0;
+        for (int i = from; i < to; i++) {
+            nonZeros += variantSets.get(i).size();
+        }
+
+        long[] entries = new long[nonZeros];
+        int k = 0;
+        for (int i = from; i < to; i++) {
+            for (Variant variant : variantSets.get(i)) {
+                entries[k++] = ((long) variant.getId() << 32) | (i - from);
+            }
+        }
+        Arrays.sort(entries);
+
+        // A_B * V
+        DMatrixRMaj blockTimesDistances = new DMatrixRMaj(to - from, m);
+        double[] data = blockTimesDistances.getData();
+        double[] row = new double[m];
+        int unpacked = -1;
+
+        for (long entry : entries) {
+            int variant = (int) (entry >>> 32);
+            int set = (int) entry;
+
+            if (variant != unpacked) {
+                variantDistances.getRow(variant, row);
+                unpacked = variant;
+            }
+
+            double weight = 1.0D / variantSets.get(from + set).size();
+            int offset = set * m;
+            for (int j = 0; j < m; j++) {
+                data[offset + j] += weight * row[j];
+            }
+        }
+
+        // A * (A_B * V)^T = A * V * A_B^T, since V is symmetric
+        DMatrixRMaj product = new DMatrixRMaj(n - from, to - from);
+        CommonOps_DSCC.mult(incidence(variantSets, from, n), CommonOps_DDRM.transpose(blockTimesDistances, null),
+                product);
+
+        return product;
+    }
+
+    /**
+     * Returns the rows [from, to) of the normalized incidence matrix.
+     *
+     * @param variantSets
+     * @param from
+     * @param to
+     * @return
+     */
+    private DMatrixSparseCSC incidence(List<? extends Collection<Variant>> variantSets, int from, int to) {
+        int nonZeros = 0;
+        for (int i = from; i < to; i++) {
+            nonZeros += variantSets.get(i).size();
+        }
+
+        DMatrixSparseTriplet triplet = new DMatrixSparseTriplet(to - from, variantDistances.size(), nonZeros);
+        for (int i = from; i < to; i++) {
+            Collection<Variant> variants = variantSets.get(i);
+            double weight = 1.0D / variants.size();
+
+            for (Variant variant : variants) {
+                triplet.addItem(i - from, variant.getId(), weight);
+            }
+        }
+
+        return ConvertDMatrixStruct.convert(triplet, (DMatrixSparseCSC) null);
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public void setBlockSize(int blockSize) {
+        if (blockSize < 1)
+            throw new IllegalArgumentException("Block size must be positive");
+        this.blockSize = blockSize;
+    }
+
+    public ProgressListener getProgressListener() {
+        return progressListener;
+    }
+
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+}
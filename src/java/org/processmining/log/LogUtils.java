@@ -59,7 +59,8 @@ public class LogUtils {
     }
 
     /**
-     * Generates a map of variants with the corresponding XTrace elements as values.
+     * Generates a map of variants with the corresponding XTrace elements as values. The variants are numbered
+     * densely from 0 in the iteration order of the returned map.
      *
      * @param log
      * @param filter Determine if variants with less than 2 occurrences should be
@@ -90,7 +91,13 @@ public class LogUtils {
             }
         }
 
-        return variantTraceMap;
+        // assign dense ids to the remaining variants
+        Map<Variant, List<XTrace>> numberedVariantTraceMap = new LinkedHashMap<>();
+        for (Map.Entry<Variant, List<XTrace>> entry : variantTraceMap.entrySet()) {
+            numberedVariantTraceMap.put(entry.getKey().withId(numberedVariantTraceMap.size()), entry.getValue());
+        }
+
+        return numberedVariantTraceMap;
     }
 
     /**
@@ -101,12 +108,13 @@ public class LogUtils {
      * @return
      */
     public static Variant encodeXTrace(XLogInfo logInfo, XTrace trace) {
-        Variant variant = new Variant();
+        int[] events = new int[trace.size()];
+        int i = 0;
         for (XEvent event : trace) {
             XEventClass eventClass = logInfo.getEventClasses().getClassOf(event);
-            variant.add(eventClass.getIndex());
+            events[i++] = eventClass.getIndex();
         }
-        return variant;
+        return new Variant(events);
     }
 
     /**
@@ -17,35 +17,64 @@
  */
 package org.processmining.plugins.hybridclusterminer;
 
+import net.metaopt.strategy.BudgetedStrategy;
+import net.metaopt.strategy.OptimizationStrategy;
+import net.metaopt.strategy.StateResult;
+import net.metaopt.swarm.ConfigurationException;
 import net.metaopt.swarm.FitnessFunction;
+import net.metaopt.swarm.pso.AsyncSwarm;
 import net.metaopt.swarm.pso.Particle;
+import net.metaopt.swarm.pso.PositionCanonicalizer;
 import net.metaopt.swarm.pso.Swarm;
+import net.metaopt.swarm.pso.evaluation.CallerRunsEvaluation;
+import net.metaopt.swarm.pso.evaluation.EvaluationStrategy;
+import net.metaopt.swarm.pso.evaluation.ExecutorEvaluation;
+import net.metaopt.swarm.pso.evaluation.ParallelStreamEvaluation;
+import net.metaopt.swarm.surrogate.SurrogateFitnessFunction;
 import org.deckfour.xes.factory.XFactoryRegistry;
 import org.deckfour.xes.model.XLog;
 import org.deckfour.xes.model.XTrace;
 import org.processmining.clustering.Clusterer;
 import org.processmining.clustering.Configuration;
+import org.processmining.clustering.OverlapResolver;
+import org.processmining.clustering.ParticleEvaluation;
+import org.processmining.clustering.Parallelism;
+import org.processmining.clustering.cache.ClusterHierarchyCache;
+import org.processmining.clustering.cache.ClusterModelCache;
+import org.processmining.clustering.cache.EvaluationCache;
+import org.processmining.clustering.cache.ItemsetDistancesCache;
 import org.processmining.clustering.evaluator.EvaluationUtils;
 import org.processmining.clustering.evaluator.model.EventLogClusters;
 import org.processmining.clustering.evaluator.model.HeuristicsProcessModel;
 import org.processmining.clustering.evaluator.model.IProcessModel;
+import org.processmining.clustering.matrix.Dendrogram;
+import org.processmining.clustering.matrix.DistanceMatrixBuilder;
+import org.processmining.clustering.matrix.PackedDistanceMatrix;
+import org.processmining.clustering.matrix.WardClustering;
 import org.processmining.clustering.model.*;
 import org.processmining.clustering.similarity.ItemsetSimilarity;
+import org.processmining.clustering.similarity.LazyVariantDistances;
+import org.processmining.clustering.similarity.PrecomputedVariantDistances;
 import org.processmining.clustering.similarity.SequenceSimilarity;
+import org.processmining.clustering.similarity.VariantDistances;
+import org.processmining.clustering.similarity.VariantSetDistances;
 import org.processmining.contexts.uitopia.UIPluginContext;
 import org.processmining.contexts.uitopia.annotations.UITopiaVariant;
 import org.processmining.framework.plugin.annotations.Plugin;
 import org.processmining.framework.plugin.annotations.PluginCategory;
 import org.processmining.framework.plugin.annotations.PluginVariant;
 import org.processmining.log.LogUtils;
+import org.processmining.plugins.hybridclusterminer.pattern.ClosedItemsetIndex;
 import org.processmining.plugins.hybridclusterminer.pattern.FrequentItemset;
 import org.processmining.plugins.hybridclusterminer.pattern.FrequentPatternMiner;
+import org.processmining.plugins.hybridclusterminer.pattern.TransactionDatabase;
 import org.processmining.plugins.log.ReSortLog;
-import smile.clustering.HierarchicalClustering;
-import smile.clustering.linkage.WardLinkage;
 
 import java.util.*;
-import java.util.Map.Entry;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 @Plugin(name = "Clustering: Hybrid Feature Set", parameterLabels = {"Log"}, returnLabels = {
         "Cluster of eventlogs"}, returnTypes = {EventLogClusters.class}, categories = {
@@ -67,10 +96,57 @@ public class HybridClustererPlugin extends Clusterer {
      */
     private Map<Variant, List<XTrace>> variantTraceMap;
 
+    /**
+     * Stores the encoded categorical attributes of the traces of each variant
+     */
+    private TransactionDatabase transactionDatabase;
+
+    /**
+     * Stores the edit distances between the variants
+     */
+    private VariantDistances variantDistances;
+
+    /**
+     * Stores the closed itemsets of each variant mined at the lowest searched support (may be null)
+     */
+    private ClosedItemsetIndex closedItemsetIndex;
+
+    /**
+     * Stores the indexes of the traces of each variant in the sublog (indexed by the variant id)
+     */
+    private int[][] variantTraceIndices;
+
+    /**
+     * Stores the fitness of already evaluated PSO positions
+     */
+    private EvaluationCache evaluationCache;
+
+    /**
+     * Stores the process model statistics of already evaluated clusters
+     */
+    private ClusterModelCache clusterModelCache;
+
+    /**
+     * Stores the dendrograms of already clustered (support, weighting) pairs
+     */
+    private ClusterHierarchyCache clusterHierarchyCache;
+
+    /**
+     * Stores the itemsets and distance components of already clustered supports
+     */
+    private ItemsetDistancesCache itemsetDistancesCache;
+
+    /**
+     * Set when the time budget is exhausted, the running evaluations stop at their next check
+     */
+    private volatile boolean evaluationsAbandoned;
+
     @PluginVariant(variantLabel = "Cluster Eventlog using Hybrid Clusterer", requiredParameterLabels = {0})
     @UITopiaVariant(affiliation = "Technische Universität Darmstadt", author = "A. Seeliger", email = "seeliger@tk.tu-darmstadt.de", pack = "HybridClusterer")
     public EventLogClusters cluster(UIPluginContext context, XLog log) {
+        long start = System.currentTimeMillis();
         setContext(context);
+        evaluationsAbandoned = false;
         log("Read log and calculate trace variants...");
         setProgressInterminate(true);
 
@@ -80,41 +156,153 @@ public class HybridClustererPlugin extends Clusterer {
 
         // generate a variant trace map
         this.variantTraceMap = LogUtils.getLogVariants(sublog);
+        this.transactionDatabase = TransactionDatabase.build(variantTraceMap, categoricalFields);
+        this.variantTraceIndices = getVariantTraceIndices();
+
+        // calculate the distances between all variants
+        this.variantDistances = getVariantDistances();
+        this.evaluationCache = new EvaluationCache(Configuration.SUPPORT_RESOLUTION, Configuration.WEIGHTING_RESOLUTION);
+        this.clusterModelCache = new ClusterModelCache(Configuration.CLUSTER_MODEL_CACHE_SIZE);
+        this.clusterHierarchyCache = new ClusterHierarchyCache(Configuration.DENDROGRAM_CACHE_SIZE);
+        this.itemsetDistancesCache = new ItemsetDistancesCache(Configuration.ITEMSET_DISTANCE_CACHE_SIZE);
+
+        // search space of the swarm: minimum support, number of clusters and weighting
+        double[] minPosition = new double[]{0.05, 2, 0};
+        double[] maxPosition = new double[]{0.6, Math.min(Math.max(2, variantTraceMap.size()), 100), 1};
 
         // use the optimizer for calculating the best support value
-        Swarm swarm = new Swarm(5, new Particle(3), new FitnessFunction(true) {
+        FitnessFunction fitnessFunction = new FitnessFunction(true) {
 
             @Override
             public double evaluate(double[] position) {
                 return performPSOStep(position[0], position[1], position[2]);
             }
 
-        });
+        };
+
+        // positions on the same quantized configuration have the same fitness
+        PositionCanonicalizer canonicalizer = position -> {
+            EvaluationCache.Key key = evaluationCache.getKey(position[0], (int) position[1], position[2]);
+            return new double[]{key.getSupport(), key.getNumClusters(), key.getWeighting()};
+        };
+
+        // skip positions that the evaluation history predicts to be clearly worse than the best one
+        SurrogateFitnessFunction surrogate = null;
+        if (Configuration.SURROGATE_SCREENING) {
+            surrogate = new SurrogateFitnessFunction(fitnessFunction, minPosition, maxPosition);
+            surrogate.setCanonicalizer(canonicalizer);
+            surrogate.setMinSamples(Configuration.SURROGATE_MIN_SAMPLES);
+            surrogate.setMargin(Configuration.SURROGATE_MARGIN);
+            surrogate.setTrustRadius(Configuration.SURROGATE_TRUST_RADIUS);
+            fitnessFunction = surrogate;
+        }
+
+        // the asynchronous swarm dispatches every particle to the shared pool as soon as its evaluation is done
+        Swarm swarm = Configuration.ASYNCHRONOUS_SWARM
+                ? new AsyncSwarm(5, new Particle(3), fitnessFunction, Parallelism.getPool())
+                : new Swarm(5, new Particle(3), fitnessFunction);
 
         // set default pso values
         swarm.setInertia(0.729844);
-        swarm.setMaxPosition(new double[]{0.6, Math.min(Math.max(2, variantTraceMap.size()), 100), 1});
-        swarm.setMinPosition(new double[]{0.05, 2, 0});
+        swarm.setMaxPosition(maxPosition);
+        swarm.setMinPosition(minPosition);
         swarm.setMaxMinVelocity(0.2);
         swarm.setGlobalIncrement(1.49618);
         swarm.setParticleIncrement(1.49618);
 
-        // perform 10 iterations
-        int numberOfIterations = 10;
+        // mine all variants once at the lowest support the swarm can reach
+        if (Configuration.SUPPORT_MONOTONE_MINING) {
+            log("Mine closed itemsets at minimum support " + swarm.getMinPosition()[0] + "...");
+            this.closedItemsetIndex = new ClosedItemsetIndex(transactionDatabase, swarm.getMinPosition()[0]);
+        }
+
+        // evolve the swarm until one of the budgets is exhausted
+        BudgetedStrategy strategy = new BudgetedStrategy(swarm);
+        strategy.setMaxIterations(Configuration.MAX_ITERATIONS);
+        if (Configuration.TIME_BUDGET > 0) {
+            // the setup so far counts against the budget, at least one iteration is needed for a result
+            long elapsed = System.currentTimeMillis() - start;
+            strategy.setTimeBudget(Math.max(1, TimeUnit.SECONDS.toMillis(Configuration.TIME_BUDGET) - elapsed));
+        }
+        strategy.setEvaluationBudget(Configuration.EVALUATION_BUDGET);
+        strategy.setStagnationWindow(Configuration.STAGNATION_WINDOW);
+        strategy.addObserver((observable, argument) -> {
+            StateResult state = (StateResult) argument;
+            if (state.state == StateResult.ProcessState.EXECUTING) {
+                System.out.println("Iteration: " + (state.currentIteration - 1));
+                System.out.println(swarm.toStringStats());
+            }
+        });
+
+        if (swarm instanceof AsyncSwarm) {
+            // the asynchronous swarm submits every evaluation to the shared pool itself
+            if (Configuration.PARTICLE_EVALUATION != ParticleEvaluation.SHARED_POOL
+                    || Configuration.PARTICLE_EVALUATION_TIMEOUT > 0) {
+                log("The asynchronous swarm evaluates the particles on the shared pool, particle evaluation "
+                        + Configuration.PARTICLE_EVALUATION + " and its timeout are ignored");
+            }
+        } else {
+            swarm.setEvaluationStrategy(createEvaluationStrategy());
+        }
 
-        for (int i = 0; i < numberOfIterations; i++) {
-            swarm.evolve();
+        // particles on the same quantized configuration share one evaluation
+        if (Configuration.COALESCE_PARTICLE_EVALUATIONS) {
+            swarm.setCanonicalizer(canonicalizer);
+        }
+
+        try {
+            if (swarm instanceof AsyncSwarm) {
+                // waits for the evaluations, so it must not block a worker of the shared pool
+                optimize(strategy);
+
+                // record the running evaluations, unless waiting for them would exceed the time budget
+                if (strategy.getStopReason() == BudgetedStrategy.StopReason.TIME_BUDGET) {
+                    evaluationsAbandoned = true;
+                    ((AsyncSwarm) swarm).cancel();
+                } else {
+                    ((AsyncSwarm) swarm).drain();
+                }
+            } else if (swarm.getEvaluationStrategy() instanceof ExecutorEvaluation) {
+                // waits for the executor's threads, whose evaluations invoke the shared pool themselves, so it must
+                // not block a worker of the shared pool either
+                optimize(strategy);
+            } else {
+                // evolve within the shared pool, so that the particles and their nested parallel phases share its
+                // workers
+                Parallelism.invoke(() -> {
+                    optimize(strategy);
+                    return null;
+                });
+            }
+        } finally {
+            swarm.getEvaluationStrategy().shutdown();
+        }
 
-            System.out.println("Iteration: " + i);
-            System.out.println(swarm.toStringStats());
+        log("Optimization stopped after " + strategy.getTotalIterations() + " iterations ("
+                + strategy.getStopReason() + ")");
+        log("Particle evaluation: " + (swarm instanceof AsyncSwarm ? ((AsyncSwarm) swarm).getStatistics()
+                : swarm.getEvaluationStrategy().getStatistics()));
+        log(evaluationCache.toString());
+        if (surrogate != null) {
+            log(surrogate.toString());
         }
+        log(clusterModelCache.toString());
+        log(clusterHierarchyCache.toString());
+        log(itemsetDistancesCache.toString());
 
         // if we found a solution, return the best
         if (swarm.getBestPosition() != null) {
-            EventLogClusters clusters = mine(swarm.getBestPosition()[0], (int) swarm.getBestPosition()[1],
-                    swarm.getBestPosition()[2]);
+            double[] best = swarm.getBestPosition();
+
+            // mine at the quantized position the cached fitness belongs to
+            if (Configuration.USE_EVALUATION_CACHE) {
+                EvaluationCache.Key key = evaluationCache.getKey(best[0], (int) best[1], best[2]);
+                best = new double[]{key.getSupport(), key.getNumClusters(), key.getWeighting()};
+            }
+
+            EventLogClusters clusters = mine(best[0], (int) best[1], best[2]);
             clusters.setLog(sublog);
-            clusters.setWeighting(swarm.getBestPosition()[2]);
+            clusters.setWeighting(best[2]);
 
             return clusters;
         }
@@ -122,6 +310,91 @@ public class HybridClustererPlugin extends Clusterer {
         return null;
     }
 
+    /**
+     * Runs the given optimization strategy.
+     *
+     * @param strategy
+     */
+    private void optimize(OptimizationStrategy strategy) {
+        try {
+            strategy.optimize();
+        } catch (ConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the strategy used to evaluate the particles of the swarm.
+     *
+     * @return
+     */
+    private EvaluationStrategy createEvaluationStrategy() {
+        ExecutorEvaluation executor;
+
+        // only the executor based evaluations can abandon particles that take too long
+        if (Configuration.PARTICLE_EVALUATION_TIMEOUT > 0
+                && Configuration.PARTICLE_EVALUATION != ParticleEvaluation.FIXED_POOL
+                && Configuration.PARTICLE_EVALUATION != ParticleEvaluation.VIRTUAL_THREADS) {
+            log("Particle evaluation " + Configuration.PARTICLE_EVALUATION + " does not support a timeout, "
+                    + "the particle evaluation timeout is ignored");
+        }
+
+        switch (Configuration.PARTICLE_EVALUATION) {
+            case CALLER_RUNS:
+                return new CallerRunsEvaluation();
+            case FIXED_POOL:
+                executor = ExecutorEvaluation.fixedPool(Math.max(1, Configuration.PARALLELISM));
+                break;
+            case VIRTUAL_THREADS:
+                executor = ExecutorEvaluation.virtualThreads();
+                break;
+            default:
+                return new ParallelStreamEvaluation();
+        }
+
+        executor.setTimeout(Configuration.PARTICLE_EVALUATION_TIMEOUT, TimeUnit.SECONDS);
+        return executor;
+    }
+
+    /**
+     * Returns the edit distances between the variants of the log. For small logs all pairwise distances are
+     * calculated upfront, otherwise they are calculated on demand and kept in a bounded cache.
+     *
+     * @return
+     */
+    private VariantDistances getVariantDistances() {
+        if (variantTraceMap.size() > Configuration.VARIANT_DISTANCE_MATRIX_LIMIT) {
+            log("Variant distances are calculated on demand for " + variantTraceMap.size() + " variants...");
+            return new LazyVariantDistances(Configuration.VARIANT_DISTANCE_CACHE_SIZE);
+        }
+
+        log("Calculating distances between " + variantTraceMap.size() + " variants...");
+
+        List<Variant> variants = new ArrayList<>(variantTraceMap.keySet());
+        variants.sort(Comparator.comparingInt(Variant::getId));
+
+        return new PrecomputedVariantDistances(variants);
+    }
+
+    /**
+     * Returns the indexes of the traces of each variant in the sublog.
+     *
+     * @return
+     */
+    private int[][] getVariantTraceIndices() {
+        Map<XTrace, Integer> positions = new IdentityHashMap<>();
+        for (int i = 0; i < sublog.size(); i++) {
+            positions.put(sublog.get(i), i);
+        }
+
+        int[][] indices = new int[variantTraceMap.size()][];
+        for (Map.Entry<Variant, List<XTrace>> entry : variantTraceMap.entrySet()) {
+            indices[entry.getKey().getId()] = entry.getValue().stream().mapToInt(positions::get).toArray();
+        }
+
+        return indices;
+    }
+
     /**
      * Generates the clusters for the given minSupport, numClusters and weighting value.
      *
@@ -131,30 +404,127 @@ public class HybridClustererPlugin extends Clusterer {
      * @return
      */
     public EventLogClusters mine(double minSupport, int numClusters, double w1) {
+        return mine(minSupport, numClusters, w1, true);
+    }
+
+    /**
+     * Generates the clusters for the given minSupport, numClusters and weighting value. If the cluster logs are not
+     * materialized, the clusters only get views of their logs that are created on first access.
+     *
+     * @param minSupport
+     * @param numClusters
+     * @param w1
+     * @param materialize
+     * @return
+     */
+    private EventLogClusters mine(double minSupport, int numClusters, double w1, boolean materialize) {
+        // the hierarchy does not keep the distances, so that only the itemset distance cache bounds the matrices
+        ItemsetDistances distances = getItemsetDistances(minSupport);
+        ClusterHierarchy hierarchy = getHierarchy(distances, minSupport, w1);
+        if (hierarchy.size() < numClusters) {
+            return null;
+        }
+
+        // cut the dendrogram
+        int[] clusterMap = hierarchy.partition(Math.min(numClusters, hierarchy.size()));
+        Map<Integer, VariantCluster> clusters = buildClustersFromHACResult(clusterMap, hierarchy.getItemsets(),
+                hierarchy.getVariants());
+
+
+        // resolve overlaps
+        log("Resolve overlapping clusters...");
+
+        new OverlapResolver(new ArrayList<>(clusters.values()), variantDistances).resolve();
+
+
+        // assign traces to clusters
+        log("Assign traces to clusters...");
+        EventLogClusters eventLogClusters = assignTracesToClusters(clusters, minSupport, materialize);
+
+        double silhouette = EvaluationUtils.silhouetteCoefficient(distances.getDistanceMatrix(w1), clusterMap);
+        eventLogClusters.setSilhouetteCoefficient(silhouette);
+
+        return eventLogClusters;
+    }
+
+    /**
+     * Returns the cluster hierarchy of the given itemset distances (of minSupport) and weighting value, either from
+     * the dendrogram cache or by clustering the itemsets.
+     *
+     * @param distances
+     * @param minSupport
+     * @param w1
+     * @return
+     */
+    private ClusterHierarchy getHierarchy(ItemsetDistances distances, double minSupport, double w1) {
+        if (!Configuration.USE_DENDROGRAM_CACHE) {
+            return createHierarchy(distances, w1);
+        }
+
+        return clusterHierarchyCache.getHierarchy(minSupport, w1, () -> createHierarchy(distances, w1));
+    }
+
+    /**
+     * Clusters the given frequent itemsets hierarchically with the given weighting value.
+     *
+     * @param distances
+     * @param w1
+     * @return
+     */
+    private ClusterHierarchy createHierarchy(ItemsetDistances distances, double w1) {
+        // perform clustering in place on a blended matrix, the silhouette reads the blended components
+        log("Clustering...");
+        Dendrogram dendrogram = new WardClustering(distances.blend(w1)).cluster();
+
+        return new ClusterHierarchy(distances.getItemsets(), distances.getVariants(), dendrogram);
+    }
+
+    /**
+     * Returns the frequent itemsets and their distance components for the given minSupport, either from the itemset
+     * distance cache or by mining the itemsets.
+     *
+     * @param minSupport
+     * @return
+     */
+    private ItemsetDistances getItemsetDistances(double minSupport) {
+        if (!Configuration.USE_ITEMSET_DISTANCE_CACHE) {
+            return createItemsetDistances(minSupport);
+        }
+
+        return itemsetDistancesCache.getDistances(minSupport, () -> createItemsetDistances(minSupport));
+    }
+
+    /**
+     * Mines the frequent itemsets for the given minSupport and calculates their sequence and itemset distances.
+     *
+     * @param minSupport
+     * @return
+     */
+    private ItemsetDistances createItemsetDistances(double minSupport) {
         Map<Itemset, Variants> frequentItemsetListMap = new HashMap<>();
         Map<Itemset, Double> frequentItemsetSupport = new HashMap<>();
+        Map<Itemset, BitItemset> encodedItemsets = new HashMap<>();
 
-        // now we need to extract frequent patterns for each variant
-        for (Entry<Variant, List<XTrace>> variant : variantTraceMap.entrySet()) {
-            HashMap<FieldValue, Integer> itemsetValues = new HashMap<>();
-            HashMap<Integer, FieldValue> valueMap = new HashMap<>();
-
-            // write database file
-            FrequentPatternMiner miner = new FrequentPatternMiner();
-            List<List<Integer>> transactions = miner.getDatabase(variant.getValue(), itemsetValues, valueMap,
-                    categoricalFields);
+        // now we need to extract frequent patterns for each variant (in parallel, every task uses its own miner)
+        List<Variant> variants = new ArrayList<>(variantTraceMap.keySet());
+        List<Collection<FrequentItemset>> minedItemsets = Parallelism.invoke(() -> variants.parallelStream()
+                .map(variant -> getFrequentItemsets(variant, minSupport))
+                .collect(Collectors.toList()));
 
-            // extract frequent itemsets
-            Set<FrequentItemset> frequentItemsets = miner.extractFrequentItemsets(transactions, minSupport);
+        // merge in the order of the variants, so that the result does not depend on the scheduling
+        for (int i = 0; i < variants.size(); i++) {
+            Variant variant = variants.get(i);
 
-            for (FrequentItemset itemset : frequentItemsets) {
+            for (FrequentItemset itemset : minedItemsets.get(i)) {
                 Itemset values = new Itemset();
-                itemset.forEach(x -> values.add(valueMap.get(x)));
+                itemset.forEach(x -> values.add(transactionDatabase.getValue(x)));
 
                 Variants vars = frequentItemsetListMap.getOrDefault(values, new Variants());
-                vars.add(variant.getKey());
+                vars.add(variant);
 
                 frequentItemsetListMap.put(values, vars);
+                encodedItemsets.computeIfAbsent(values,
+                        x -> new BitItemset(itemset, transactionDatabase.getNumberOfValues()));
 
                 // update support
                 Double support = frequentItemsetSupport.getOrDefault(values, 0.0D);
@@ -163,80 +533,104 @@ public class HybridClustererPlugin extends Clusterer {
                 frequentItemsetSupport.put(values, support);
             }
         }
+        minedItemsets.clear();
 
         // generate separate logs for each cluster
         List<Itemset> itemsets = new ArrayList<>(frequentItemsetListMap.keySet());
         itemsets.sort(new ItemsetComparator(frequentItemsetSupport));
 
-        if (itemsets.size() < numClusters) {
-            return null;
-        }
         frequentItemsetSupport.clear();
 
 
-        // distance matrix
-        log("Calculating distance matrix for " + itemsets.size() + " itemsets...");
-        double[][] distanceMatrix = getDistanceMatrix(w1, itemsets, frequentItemsetListMap);
-
-
-        // perform clustering
-        log("Clustering...");
-
-        HierarchicalClustering algorithm = new HierarchicalClustering(new WardLinkage(distanceMatrix));
-        int[] clusterMap = algorithm.partition((int) Math.min(numClusters, distanceMatrix.length));
-        Map<Integer, VariantCluster> clusters = buildClustersFromHACResult(clusterMap, itemsets, frequentItemsetListMap);
+        // distance components
+        Variants[] itemsetVariants = new Variants[itemsets.size()];
+        BitItemset[] encoded = new BitItemset[itemsets.size()];
+        for (int i = 0; i < itemsetVariants.length; i++) {
+            itemsetVariants[i] = frequentItemsetListMap.get(itemsets.get(i));
+            encoded[i] = encodedItemsets.get(itemsets.get(i));
+        }
 
+        log("Calculating distance matrices for " + itemsets.size() + " itemsets...");
+        PackedDistanceMatrix sequenceDistances = getSequenceDistances(itemsetVariants);
+        PackedDistanceMatrix itemsetDistances = getDistanceMatrix("Itemset distances", itemsets.size(),
+                (i, j) -> ItemsetSimilarity.calculateItemsetDistance(encoded[i], encoded[j]));
 
-        // resolve overlaps
-        log("Resolve overlapping clusters...");
+        return new ItemsetDistances(itemsets, frequentItemsetListMap, sequenceDistances, itemsetDistances);
+    }
 
-        List<VariantCluster> cls = new ArrayList<>(clusters.values());
-        while (compactClusterByMoveStrategy(cls)) {
-            // do nothing
+    /**
+     * Returns the closed frequent itemsets of the given variant, either from the closed itemset index or by mining the
+     * transactions of the variant.
+     *
+     * @param variant
+     * @param minSupport
+     * @return
+     */
+    private Collection<FrequentItemset> getFrequentItemsets(Variant variant, double minSupport) {
+        if (closedItemsetIndex != null && closedItemsetIndex.covers(minSupport)) {
+            return closedItemsetIndex.getFrequentItemsets(variant, minSupport);
         }
 
+        FrequentPatternMiner miner = new FrequentPatternMiner();
+        return miner.extractFrequentItemsets(transactionDatabase.getTransactions(variant), minSupport);
+    }
 
-        // assign traces to clusters
-        log("Assign traces to clusters...");
-        EventLogClusters eventLogClusters = assignTracesToClusters(clusters, minSupport);
+    /**
+     * Returns the average variant distances between the variants of the given itemsets. If all variant distances are
+     * precomputed, the distances are calculated by matrix products, otherwise pair by pair.
+     *
+     * @param itemsetVariants
+     * @return
+     */
+    private PackedDistanceMatrix getSequenceDistances(Variants[] itemsetVariants) {
+        if (!Configuration.MATRIX_PRODUCT_SEQUENCE_DISTANCES
+                || !(variantDistances instanceof PrecomputedVariantDistances)) {
+            return getDistanceMatrix("Sequence distances", itemsetVariants.length,
+                    (i, j) -> SequenceSimilarity.calculateVariantDistance(variantDistances, itemsetVariants[i],
+                            itemsetVariants[j]));
+        }
 
-        double silhouette = EvaluationUtils.silhouetteCoefficient(distanceMatrix, clusterMap);
-        eventLogClusters.setSilhouetteCoefficient(silhouette);
+        VariantSetDistances product = new VariantSetDistances((PrecomputedVariantDistances) variantDistances);
+        product.setProgressListener(getProgressLogger("Sequence distances"));
 
-        return eventLogClusters;
+        return product.build(PackedDistanceMatrix.create(itemsetVariants.length,
+                Configuration.SINGLE_PRECISION_DISTANCE_MATRIX), Arrays.asList(itemsetVariants));
     }
 
     /**
-     * Returns the distance matrix for the given itemsets.
+     * Builds a distance matrix of the given size in parallel and logs the progress.
      *
-     * @param w1
-     * @param itemsets
-     * @param frequentItemsetListMap
+     * @param name
+     * @param size
+     * @param distance
      * @return
      */
-    private double[][] getDistanceMatrix(double w1, List<Itemset> itemsets, Map<Itemset, Variants> frequentItemsetListMap) {
-        double[][] distanceMatrix = new double[itemsets.size()][itemsets.size()];
+    private PackedDistanceMatrix getDistanceMatrix(String name, int size, DistanceMatrixBuilder.CellDistance distance) {
+        DistanceMatrixBuilder builder = new DistanceMatrixBuilder();
+        builder.setProgressListener(getProgressLogger(name));
 
-        for (int i = 0; i < itemsets.size(); i++) {
-            Itemset i1 = itemsets.get(i);
-            Variants v1 = frequentItemsetListMap.get(i1);
+        PackedDistanceMatrix distanceMatrix = PackedDistanceMatrix.create(size,
+                Configuration.SINGLE_PRECISION_DISTANCE_MATRIX);
 
-            for (int j = 0; j < i; j++) {
-                // get variants and itemsets
-                Itemset i2 = itemsets.get(j);
-                Variants v2 = frequentItemsetListMap.get(i2);
-
-                // calc distance between variants
-                double variantsDistance = SequenceSimilarity.calculateVariantDistance(v1, v2);
-                double itemsetsDistance = ItemsetSimilarity.calculateItemsetDistance(i1, i2);
+        return builder.build(distanceMatrix, distance);
+    }
 
-                double distance = w1 * variantsDistance + (1 - w1) * itemsetsDistance;
-                distanceMatrix[i][j] = distance;
-                distanceMatrix[j][i] = distance;
+    /**
+     * Returns a progress listener that logs the progress of the given phase in steps of 10%.
+     *
+     * @param name
+     * @return
+     */
+    private DistanceMatrixBuilder.ProgressListener getProgressLogger(String name) {
+        AtomicInteger reported = new AtomicInteger();
+
+        return (done, total) -> {
+            int step = (int) (done * 10 / total);
+            int last = reported.get();
+            if (step > last && reported.compareAndSet(last, step)) {
+                log(name + ": " + step * 10 + "%");
             }
-        }
-
-        return distanceMatrix;
+        };
     }
 
     /**
@@ -269,10 +663,16 @@ public class HybridClustererPlugin extends Clusterer {
      *
      * @param clusters
      * @param minSupport
+     * @param materialize
      * @return
      */
-    private EventLogClusters assignTracesToClusters(Map<Integer, VariantCluster> clusters, double minSupport) {
-        assignTracesToVariants(clusters.values(), variantTraceMap, sublog);
+    private EventLogClusters assignTracesToClusters(Map<Integer, VariantCluster> clusters, double minSupport,
+                                                    boolean materialize) {
+        if (materialize) {
+            assignTracesToVariants(clusters.values(), variantTraceMap, sublog);
+        } else {
+            assignTraceViewsToVariants(clusters.values(), variantTraceIndices, sublog);
+        }
 
         EventLogClusters result = new EventLogClusters(new ArrayList<>(clusters.values()), sublog.size(), sublog);
         result.setMinSupport(minSupport);
@@ -281,72 +681,71 @@ public class HybridClustererPlugin extends Clusterer {
     }
 
     /**
-     * Compacts overlapping clusters by moving variants to the most similar cluster.
+     * Perform a single PSO step with the given optimization parameters and return the optimization value, i.e.,
+     * the weighted process model fitness. If the evaluation cache is enabled, positions are quantized and those of an
+     * already evaluated configuration are answered from the cache, otherwise only the support is rounded.
      *
-     * @param clusters
+     * @param support
+     * @param numClusters
+     * @param weighting
+     * @return
      */
-    private boolean compactClusterByMoveStrategy(List<VariantCluster> clusters) {
-        // find variants in different clusters
-        for (int i = 0; i < clusters.size(); i++) {
-            VariantCluster cluster1 = clusters.get(i);
-
-            for (Variant variant : cluster1.getVariants()) {
-                // get distance to current cluster
-                double distance = SequenceSimilarity.calculateVariantDistanceToCluser(cluster1.getVariants(), variant);
-
-                for (int j = 0; j < clusters.size(); j++) {
-                    if (i == j)
-                        continue;
+    private double performPSOStep(double support, double numClusters, double weighting) {
+        if (!Configuration.USE_EVALUATION_CACHE) {
+            double minSupport = Math.round(support * 1000d) / 1000d;
+            System.out.println("PSO values: [" + minSupport + ", " + (int) numClusters + ", " + weighting + "]");
 
-                    VariantCluster cluster2 = clusters.get(j);
+            return evaluate(minSupport, (int) numClusters, weighting);
+        }
 
-                    if (cluster2.getVariants().contains(variant)) {
-                        double distanceOther = SequenceSimilarity
-                                .calculateVariantDistanceToCluser(cluster2.getVariants(), variant);
+        EvaluationCache.Key key = evaluationCache.getKey(support, (int) numClusters, weighting);
+        System.out.println("PSO values: " + key);
 
-                        if (distanceOther >= distance) {
-                            cluster2.getVariants().remove(variant);
-                            return true;
-                        }
-                    }
-                }
-            }
+        Double cached = evaluationCache.get(key);
+        if (cached != null) {
+            return cached;
         }
 
-        return false;
+        double fitness = evaluate(key.getSupport(), key.getNumClusters(), key.getWeighting());
+        evaluationCache.put(key, fitness);
+
+        return fitness;
     }
 
     /**
-     * Perform a single PSO step with the given optimization parameters and return the optimization value, i.e.,
-     * the weighted process model fitness.
+     * Generates the clusters for the given (quantized) parameters and returns the weighted process model fitness.
      *
-     * @param support
+     * @param minSupport
      * @param numClusters
      * @param weighting
      * @return
      */
-    private double performPSOStep(double support, double numClusters, double weighting) {
-        double minSupport = Math.round(support * 1000d) / 1000d;
-        System.out.println("PSO values: [" + minSupport + ", " + (int) numClusters + ", " + weighting + "]");
+    private double evaluate(double minSupport, int numClusters, double weighting) {
+        checkAbandoned();
 
         // now generate the clusters for the given minSupport
-        EventLogClusters clusters = mine(minSupport, (int) numClusters, weighting);
+        EventLogClusters clusters = mine(minSupport, numClusters, weighting, false);
         if (clusters == null)
             return 0;
 
-        // now we need to evaluate the clusters to calculate the weighted fitness
+        checkAbandoned();
+
+        // mine heuristic nets of all clusters in parallel
+        List<VariantCluster> variantClusters = clusters.getClusters();
+        double[] fitnesses = Parallelism.invoke(() -> variantClusters.parallelStream()
+                .mapToDouble(this::getFitness)
+                .toArray());
+
+        // now we need to evaluate the clusters to calculate the weighted fitness (in the order of the clusters)
         double fitness = 0.0D;
         int numTraces = 0;
 
-        for (VariantCluster cluster : clusters.getClusters()) {
-            XLog sublog = cluster.getLog();
+        for (int i = 0; i < variantClusters.size(); i++) {
+            int clusterTraces = variantClusters.get(i).getNumberOfTraces();
+            numTraces += clusterTraces;
 
-            // mine heuristic net
-            IProcessModel model = HeuristicsProcessModel.createInstance(getContext(), sublog);
-            numTraces += sublog.size();
-
-            double currentFitness = model.getFitness();
-            fitness += currentFitness * sublog.size();
+            double currentFitness = fitnesses[i];
+            fitness += currentFitness * clusterTraces;
         }
 
         // calc fitness
@@ -357,4 +756,50 @@ public class HybridClustererPlugin extends Clusterer {
                 (1 - (clusters.getClusters().size() / Math.min((double) variantTraceMap.size(), 100d))))
                 / 4;
     }
+
+    /**
+     * Stops an evaluation that has been abandoned because the time budget is exhausted. Its result would not be
+     * recorded anyway, so the shared pool is freed for the final clustering.
+     */
+    private void checkAbandoned() {
+        if (evaluationsAbandoned) {
+            throw new CancellationException("The time budget is exhausted");
+        }
+    }
+
+    /**
+     * Returns the fitness of the heuristics net of the given cluster, either from the cluster model cache or by mining
+     * the cluster log.
+     *
+     * @param cluster
+     * @return
+     */
+    private double getFitness(VariantCluster cluster) {
+        checkAbandoned();
+
+        if (!Configuration.USE_CLUSTER_MODEL_CACHE) {
+            return createModel(cluster).getFitness();
+        }
+
+        return clusterModelCache.getStatistics(cluster.getVariants(), () -> createModel(cluster)).getFitness();
+    }
+
+    /**
+     * Mines the heuristics net of the given cluster, either trace by trace or from the weighted variants. The weighted
+     * variants are taken from the variant trace map, so the cluster log is not materialized.
+     *
+     * @param cluster
+     * @return
+     */
+    private IProcessModel createModel(VariantCluster cluster) {
+        if (Configuration.WEIGHTED_MODEL_EVALUATION) {
+            List<List<XTrace>> variants = new ArrayList<>();
+            for (Variant variant : cluster.getVariants()) {
+                variants.add(variantTraceMap.get(variant));
+            }
+            return HeuristicsProcessModel.createInstance(getContext(), sublog.getClassifiers().get(0), variants);
+        }
+
+        return HeuristicsProcessModel.createInstance(getContext(), cluster.getLog());
+    }
 }
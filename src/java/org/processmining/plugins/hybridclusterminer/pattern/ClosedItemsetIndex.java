@@ -0,0 +1,120 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.plugins.hybridclusterminer.pattern;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.processmining.clustering.Parallelism;
+import org.processmining.clustering.model.Variant;
+
+/**
+ * Closed frequent itemsets of every variant, mined once at the lowest support the optimizer can ask for.
+ *
+ * Whether an itemset is closed (no proper superset has the same support) depends only on the transactions of the
+ * variant and not on the support threshold. The closed itemsets frequent at a higher threshold are therefore exactly
+ * the closed itemsets mined at the lower threshold whose support reaches the higher one, so every later query is
+ * answered by cutting the support-sorted list of a variant.
+ */
+public class ClosedItemsetIndex {
+
+	private final double minSupport;
+
+	/**
+	 * Stores the closed itemsets of each variant sorted by descending support
+	 */
+	private final Map<Variant, List<FrequentItemset>> itemsets = new ConcurrentHashMap<>();
+
+	/**
+	 * Stores the number of transactions (traces) of each variant
+	 */
+	private final Map<Variant, Integer> transactionCount = new ConcurrentHashMap<>();
+
+	/**
+	 * Mines the closed itemsets of all variants of the given database at the given minimum support.
+	 *
+	 * @param database
+	 * @param minSupport
+	 */
+	public ClosedItemsetIndex(TransactionDatabase database, double minSupport) {
+		this.minSupport = minSupport;
+
+		Comparator<FrequentItemset> bySupport = Comparator.comparingDouble(FrequentItemset::getSupport).reversed();
+
+		// mine the variants in parallel, every task uses its own miner
+		Parallelism.invoke(() -> {
+			database.getVariants().parallelStream().forEach(variant -> {
+				int[][] transactions = database.getTransactions(variant);
+
+				FrequentPatternMiner miner = new FrequentPatternMiner();
+				List<FrequentItemset> closed = new ArrayList<>(miner.extractFrequentItemsets(transactions, minSupport));
+				closed.sort(bySupport);
+
+				itemsets.put(variant, Collections.unmodifiableList(closed));
+				transactionCount.put(variant, transactions.length);
+			});
+			return null;
+		});
+	}
+
+	/**
+	 * Returns true, if queries for the given minimum support can be answered by this index.
+	 *
+	 * @param minSupport
+	 * @return
+	 */
+	public boolean covers(double minSupport) {
+		return minSupport >= this.minSupport;
+	}
+
+	/**
+	 * Returns the closed itemsets of the given variant that are frequent with respect to the given minimum support.
+	 * The returned itemsets are shared and must not be modified.
+	 *
+	 * @param variant
+	 * @param minSupport
+	 * @return
+	 */
+	public List<FrequentItemset> getFrequentItemsets(Variant variant, double minSupport) {
+		if (!covers(minSupport)) {
+			throw new IllegalArgumentException(
+					"Minimum support " + minSupport + " is below the mined support " + this.minSupport);
+		}
+
+		List<FrequentItemset> closed = itemsets.get(variant);
+
+		// same relative support as used by AlgoFPClose
+		int minSupportRelative = (int) Math.ceil(minSupport * transactionCount.get(variant));
+
+		int end = 0;
+		while (end < closed.size() && closed.get(end).getSupport() >= minSupportRelative) {
+			end++;
+		}
+
+		return closed.subList(0, end);
+	}
+
+	public double getMinSupport() {
+		return minSupport;
+	}
+
+}
@@ -43,10 +43,24 @@ public class FrequentPatternMiner {
 	 * @return
 	 */
 	public Set<FrequentItemset> extractFrequentItemsets(List<List<Integer>> transactions, double minSupport) {
-		Set<FrequentItemset> result = new HashSet<>();
 		AlgoFPClose fpClose = new AlgoFPClose();
+		return toFrequentItemsets(fpClose.runAlgorithm(transactions, minSupport));
+	}
 
-		Itemsets itemsets = fpClose.runAlgorithm(transactions, minSupport);
+	/**
+	 * Extracts all closed frequent item sets from the given encoded transactions.
+	 * 
+	 * @param transactions
+	 * @param minSupport
+	 * @return
+	 */
+	public Set<FrequentItemset> extractFrequentItemsets(int[][] transactions, double minSupport) {
+		AlgoFPClose fpClose = new AlgoFPClose();
+		return toFrequentItemsets(fpClose.runAlgorithm(transactions, minSupport));
+	}
+
+	private Set<FrequentItemset> toFrequentItemsets(Itemsets itemsets) {
+		Set<FrequentItemset> result = new HashSet<>();
 
 		// convert to simple format
 		for (List<Itemset> level : itemsets.getLevels()) {
@@ -0,0 +1,143 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.plugins.hybridclusterminer.pattern;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.deckfour.xes.model.XAttribute;
+import org.deckfour.xes.model.XAttributeMap;
+import org.deckfour.xes.model.XTrace;
+import org.processmining.clustering.model.FieldValue;
+import org.processmining.clustering.model.Variant;
+import org.processmining.log.utils.XUtils;
+
+/**
+ * Immutable transaction databases of all variants of a log. Every categorical trace attribute value is encoded once
+ * into a log-wide item dictionary, and the traces of each variant are stored as one item array per trace.
+ */
+public class TransactionDatabase {
+
+	/**
+	 * Stores the attribute value of each item (item i is stored at index i - 1)
+	 */
+	private final List<FieldValue> values;
+
+	/**
+	 * Stores the transactions of each variant
+	 */
+	private final Map<Variant, int[][]> transactions;
+
+	private TransactionDatabase(List<FieldValue> values, Map<Variant, int[][]> transactions) {
+		this.values = Collections.unmodifiableList(values);
+		this.transactions = Collections.unmodifiableMap(transactions);
+	}
+
+	/**
+	 * Encodes the categorical attributes of all traces of the given variants.
+	 *
+	 * @param variantTraceMap
+	 * @param categoricalAttributes
+	 * @return
+	 */
+	public static TransactionDatabase build(Map<Variant, List<XTrace>> variantTraceMap,
+			List<String> categoricalAttributes) {
+		Set<String> categorical = new HashSet<>(categoricalAttributes);
+
+		List<FieldValue> values = new ArrayList<>();
+		Map<FieldValue, Integer> items = new HashMap<>();
+		Map<Variant, int[][]> transactions = new HashMap<>();
+
+		for (Entry<Variant, List<XTrace>> variant : variantTraceMap.entrySet()) {
+			List<XTrace> traces = variant.getValue();
+			int[][] database = new int[traces.size()][];
+
+			for (int i = 0; i < database.length; i++) {
+				XAttributeMap attributes = traces.get(i).getAttributes();
+
+				int[] transaction = new int[attributes.size()];
+				int length = 0;
+
+				for (Entry<String, XAttribute> attribute : attributes.entrySet()) {
+					// is categorical
+					if (!categorical.contains(attribute.getKey()))
+						continue;
+
+					FieldValue value = new FieldValue(attribute.getKey(),
+							XUtils.getAttributeValue(attribute.getValue()).toString());
+
+					Integer item = items.get(value);
+					if (item == null) {
+						values.add(value);
+						item = values.size();
+						items.put(value, item);
+					}
+
+					transaction[length++] = item;
+				}
+
+				database[i] = length == transaction.length ? transaction : Arrays.copyOf(transaction, length);
+			}
+
+			transactions.put(variant.getKey(), database);
+		}
+
+		return new TransactionDatabase(values, transactions);
+	}
+
+	/**
+	 * Returns the transactions of the given variant. The returned arrays must not be modified.
+	 *
+	 * @param variant
+	 * @return
+	 */
+	public int[][] getTransactions(Variant variant) {
+		return transactions.get(variant);
+	}
+
+	/**
+	 * Returns the attribute value encoded by the given item.
+	 *
+	 * @param item
+	 * @return
+	 */
+	public FieldValue getValue(int item) {
+		return values.get(item - 1);
+	}
+
+	/**
+	 * Returns the number of distinct attribute values (items) in the database.
+	 *
+	 * @return
+	 */
+	public int getNumberOfValues() {
+		return values.size();
+	}
+
+	public Set<Variant> getVariants() {
+		return transactions.keySet();
+	}
+
+}
@@ -28,7 +28,6 @@ import java.util.Map;
 
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemsets;
-import ca.pfv.spmf.tools.MemoryLogger;
 
 /** 
  * This is an implementation of the FPClose algorithm (Grahne et al., 2004).
@@ -58,6 +57,7 @@ public class AlgoFPClose {
 	private long endTime; // end time of the latest execution
 	private int transactionCount = 0; // transaction count in the database
 	private int itemsetCount; // number of freq. itemsets found
+	private double maxMemory; // maximum memory usage in mb
 	
 	// parameter
 	public int minSupportRelative;// the relative minimum support
@@ -108,14 +108,29 @@ public class AlgoFPClose {
 	}
 
 	public Itemsets runAlgorithm(List<List<Integer>> input, double minsupp) {
+		int[][] transactions = new int[input.size()][];
+		for(int i = 0; i < transactions.length; i++) {
+			transactions[i] = input.get(i).stream().mapToInt(Integer::intValue).toArray();
+		}
+		return runAlgorithm(transactions, minsupp);
+	}
+
+	/**
+	 * Run the algorithm on a database given as one item array per transaction.
+	 * @param input the transactions (not modified)
+	 * @param minsupp the minimum support as a percentage of the transactions
+	 * @return the closed frequent itemsets
+	 */
+	public Itemsets runAlgorithm(int[][] input, double minsupp) {
 		// record start time
 		startTimestamp = System.currentTimeMillis();
 		// number of itemsets found
 		itemsetCount = 0;
 		
-		//initialize tool to record memory usage
-		MemoryLogger.getInstance().reset();
-		MemoryLogger.getInstance().checkMemory();
+		//initialize the memory usage of this run (not the shared MemoryLogger, so that
+		// several instances can run concurrently)
+		maxMemory = 0;
+		checkMemory();
 		
 		// if the user want to keep the result into memory
 		patterns =  new Itemsets("FREQUENT ITEMSETS");
@@ -139,10 +154,10 @@ public class AlgoFPClose {
 		// do not have the minimum support.
 		FPTree tree = new FPTree();
 		
-		for(List<Integer> line : input) {
+		for(int[] line : input) {
 			List<Integer> transaction = new ArrayList<Integer>();
 			
-			for(Integer item : line) {
+			for(int item : line) {
 				if(originalMapSupport.get(item) >= minSupportRelative) {
 					transaction.add(item);
 				}
@@ -175,7 +190,7 @@ public class AlgoFPClose {
 		endTime= System.currentTimeMillis();
 		
 		// check the memory usage
-		MemoryLogger.getInstance().checkMemory();
+		checkMemory();
 		
 		// return the result (if saved to memory)
 		return patterns;
@@ -453,12 +468,12 @@ public class AlgoFPClose {
 
 	}
 	
-	private  Map<Integer, Integer> scanDatabaseToDetermineFrequencyOfSingleItems(List<List<Integer>> input) {
+	private  Map<Integer, Integer> scanDatabaseToDetermineFrequencyOfSingleItems(int[][] input) {
 		// a map for storing the support of each item (key: item, value: support)
 		Map<Integer, Integer> mapSupport = new HashMap<Integer, Integer>();
 				 
-		for(List<Integer> line : input) {
-			for(Integer item : line) {
+		for(int[] line : input) {
+			for(int item : line) {
 				Integer count = mapSupport.get(item);
 					if(count == null){
 						mapSupport.put(item, 1);
@@ -474,6 +489,17 @@ public class AlgoFPClose {
 		return mapSupport;
 	}
 
+	/**
+	 * Update the maximum memory usage of this run.
+	 */
+	private void checkMemory() {
+		double currentMemory = (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory())
+				/ 1024d / 1024d;
+		if (currentMemory > maxMemory) {
+			maxMemory = currentMemory;
+		}
+	}
+
 	/**
 	 * Print statistics about the algorithm execution to System.out.
 	 */
@@ -481,7 +507,7 @@ public class AlgoFPClose {
 		System.out.println("=============  FP-Close v0.96r14  - STATS =============");
 		long temps = endTime - startTimestamp;
 		System.out.println(" Transactions count from database : " + transactionCount);
-		System.out.print(" Max memory usage: " + MemoryLogger.getInstance().getMaxMemory() + " mb \n");
+		System.out.print(" Max memory usage: " + maxMemory + " mb \n");
 		System.out.println(" Closed frequent itemset count : " + itemsetCount); 
 		System.out.println(" Total time ~ " + temps + " ms");
 		System.out.println("===================================================");
@@ -0,0 +1,200 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.matrix;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import smile.clustering.HierarchicalClustering;
+import smile.clustering.linkage.WardLinkage;
+
+/**
+ * Compares the merge trees and partitions of {@link WardClustering} with smile's HierarchicalClustering, and checks
+ * that distance matrices with many tied distances yield valid, deterministic merge trees.
+ */
+public class WardClusteringTest {
+
+    @Test
+    public void testDistinctDistances() {
+        Random random = new Random(1);
+        for (int t = 0; t < 10; t++) {
+            double[][] distances = randomDistances(random, 20 + random.nextInt(150), 0);
+            assertSameClustering(distances, t % 2 == 0);
+        }
+    }
+
+    @Test
+    public void testFewDistinctDistances() {
+        Random random = new Random(2);
+        for (int t = 0; t < 40; t++) {
+            double[][] distances = randomDistances(random, 2 + random.nextInt(150), 1 + random.nextInt(8));
+            assertValidClustering(distances, t % 2 == 0);
+        }
+    }
+
+    @Test
+    public void testDuplicateElements() {
+        Random random = new Random(3);
+        for (int t = 0; t < 40; t++) {
+            int size = 2 + random.nextInt(150);
+            double[][] points = new double[size][];
+            for (int i = 0; i < size; i++) {
+                // identical itemsets have identical distances to all others
+                points[i] = i > 0 && random.nextInt(3) == 0 ? points[random.nextInt(i)]
+                        : new double[] { random.nextInt(4), random.nextInt(4) };
+            }
+
+            double[][] distances = new double[size][size];
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < i; j++) {
+                    distances[i][j] = distances[j][i] = Math.hypot(points[i][0] - points[j][0],
+                            points[i][1] - points[j][1]);
+                }
+            }
+            assertValidClustering(distances, t % 2 == 0);
+        }
+    }
+
+    @Test
+    public void testUniformDistances() {
+        double[][] distances = randomDistances(new Random(4), 60, 1);
+        assertValidClustering(distances, true);
+        assertValidClustering(distances, false);
+    }
+
+    @Test
+    public void testTieBreak() {
+        // corners of a unit square, every corner has two nearest neighbours
+        double s = Math.sqrt(2);
+        double[][] distances = { { 0, 1, s, 1 }, { 1, 0, 1, s }, { s, 1, 0, 1 }, { 1, s, 1, 0 } };
+
+        Dendrogram dendrogram = new WardClustering(pack(distances, false)).cluster();
+
+        assertArrayEquals(new int[][] { { 0, 1 }, { 2, 3 }, { 4, 5 } }, dendrogram.getTree());
+        assertArrayEquals(new int[] { 0, 0, 1, 1 }, dendrogram.partition(2));
+    }
+
+    /**
+     * Returns a random symmetric distance matrix, with distances rounded to the given number of levels (0 keeps
+     * them continuous).
+     */
+    private static double[][] randomDistances(Random random, int size, int levels) {
+        double[][] distances = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < i; j++) {
+                double d = random.nextDouble();
+                if (levels > 0) {
+                    d = (1 + Math.floor(d * levels)) / levels;
+                }
+                distances[i][j] = distances[j][i] = d;
+            }
+        }
+        return distances;
+    }
+
+    private static PackedDistanceMatrix pack(double[][] distances, boolean singlePrecision) {
+        int size = distances.length;
+
+        PackedDistanceMatrix matrix = PackedDistanceMatrix.create(size, singlePrecision);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < i; j++) {
+                matrix.set(i, j, distances[i][j]);
+            }
+        }
+        return matrix;
+    }
+
+    private static void assertSameClustering(double[][] distances, boolean singlePrecision) {
+        int size = distances.length;
+
+        HierarchicalClustering expected = new HierarchicalClustering(new WardLinkage(distances));
+        Dendrogram actual = new WardClustering(pack(distances, singlePrecision)).cluster();
+
+        // the Lance-Williams updates are applied in a different order, so the heights may differ by rounding
+        assertArrayEquals(expected.getTree(), actual.getTree());
+        assertArrayEquals(expected.getHeight(), actual.getHeight(), 1E-6);
+        for (int k = 2; k <= size; k++) {
+            // smile's heap selection of the roots occasionally loses clusters, there is nothing to compare with
+            int[] partition = expected.partition(k);
+            if (Arrays.stream(partition).distinct().count() == k) {
+                assertSamePartition("k = " + k, partition, actual.partition(k));
+            }
+        }
+        assertValidClustering(distances, singlePrecision);
+    }
+
+    /**
+     * Asserts that two partitions group the elements in the same clusters, regardless of the cluster numbers.
+     */
+    private static void assertSamePartition(String message, int[] expected, int[] actual) {
+        Map<Integer, Integer> mapping = new HashMap<>();
+        for (int i = 0; i < expected.length; i++) {
+            Integer cluster = mapping.putIfAbsent(expected[i], actual[i]);
+            if (cluster != null) {
+                assertEquals(message, cluster.intValue(), actual[i]);
+            }
+        }
+        assertEquals(message, mapping.size(), new HashSet<>(mapping.values()).size());
+    }
+
+    /**
+     * Asserts that every cluster is merged exactly once after it was created, that the heights do not decrease (up to
+     * rounding), that every partition has the requested number of clusters and that clustering again yields the same
+     * tree.
+     */
+    private static void assertValidClustering(double[][] distances, boolean singlePrecision) {
+        int size = distances.length;
+
+        Dendrogram dendrogram = new WardClustering(pack(distances, singlePrecision)).cluster();
+        int[][] tree = dendrogram.getTree();
+        double[] height = dendrogram.getHeight();
+
+        assertEquals(size - 1, tree.length);
+        boolean[] merged = new boolean[2 * size - 1];
+        for (int m = 0; m < tree.length; m++) {
+            for (int id : tree[m]) {
+                assertTrue("created " + id, id < size + m);
+                assertFalse("merged " + id, merged[id]);
+                merged[id] = true;
+            }
+            // tied merges may come out of the float arithmetic slightly lower than the merges before
+            if (m > 0) {
+                assertTrue("height " + m + ": " + height[m - 1] + " > " + height[m], height[m - 1] <= height[m] + 1E-6);
+            }
+        }
+
+        for (int k = 1; k <= size; k++) {
+            assertEquals("k = " + k, k, Arrays.stream(dendrogram.partition(k)).distinct().count());
+        }
+
+        Dendrogram again = new WardClustering(pack(distances, singlePrecision)).cluster();
+        assertArrayEquals(tree, again.getTree());
+        assertArrayEquals(height, again.getHeight(), 0);
+    }
+
+}
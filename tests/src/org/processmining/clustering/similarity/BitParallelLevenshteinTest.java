@@ -0,0 +1,114 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.clustering.similarity;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.processmining.clustering.Configuration;
+
+/**
+ * Compares the bit-parallel Levenshtein distance with the dynamic programming one on random sequences, covering
+ * single and multi word patterns as well as array and map symbol lookups.
+ */
+public class BitParallelLevenshteinTest {
+
+    @Test
+    public void testSingleWord() {
+        assertSameDistances(new Random(1), 20000, 64, 8);
+    }
+
+    @Test
+    public void testMultiWord() {
+        assertSameDistances(new Random(2), 2000, 300, 8);
+    }
+
+    @Test
+    public void testLargeAlphabet() {
+        // symbols beyond the array lookup are looked up in a map
+        assertSameDistances(new Random(3), 2000, 200, 1 << 20);
+    }
+
+    @Test
+    public void testEmptySequences() {
+        assertEquals(0, BitParallelLevenshtein.getDistance(new int[0], new int[0]));
+        assertEquals(3, BitParallelLevenshtein.getDistance(new int[0], new int[] { 1, 2, 3 }));
+        assertEquals(3, BitParallelLevenshtein.getDistance(new int[] { 1, 2, 3 }, new int[0]));
+    }
+
+    @Test
+    public void testNormalizedDistance() {
+        EditDistanceEngine engine = Configuration.EDIT_DISTANCE_ENGINE;
+        Random random = new Random(4);
+
+        try {
+            for (int n = 0; n < 2000; n++) {
+                int[] s = randomSequence(random, 150, 6);
+                int[] t = randomSequence(random, 150, 6);
+
+                Configuration.EDIT_DISTANCE_ENGINE = EditDistanceEngine.DYNAMIC_PROGRAMMING;
+                double expected = SequenceSimilarity.getLevenshteinDistance(s, t);
+                Configuration.EDIT_DISTANCE_ENGINE = EditDistanceEngine.BIT_PARALLEL;
+                assertEquals(expected, SequenceSimilarity.getLevenshteinDistance(s, t), 0);
+            }
+        } finally {
+            Configuration.EDIT_DISTANCE_ENGINE = engine;
+        }
+    }
+
+    private static void assertSameDistances(Random random, int pairs, int maxLength, int alphabet) {
+        for (int n = 0; n < pairs; n++) {
+            int[] s = randomSequence(random, maxLength, alphabet);
+            int[] t = randomSequence(random, maxLength, alphabet);
+
+            assertEquals(getDistance(s, t), BitParallelLevenshtein.getDistance(s, t));
+        }
+    }
+
+    private static int[] randomSequence(Random random, int maxLength, int alphabet) {
+        int[] sequence = new int[random.nextInt(maxLength + 1)];
+        for (int i = 0; i < sequence.length; i++) {
+            sequence[i] = random.nextInt(alphabet);
+        }
+        return sequence;
+    }
+
+    /**
+     * Reference Levenshtein distance over the full dynamic programming matrix.
+     */
+    private static int getDistance(int[] s, int[] t) {
+        int[][] d = new int[s.length + 1][t.length + 1];
+        for (int i = 0; i <= s.length; i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= t.length; j++) {
+            d[0][j] = j;
+        }
+
+        for (int i = 1; i <= s.length; i++) {
+            for (int j = 1; j <= t.length; j++) {
+                int cost = s[i - 1] == t[j - 1] ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+            }
+        }
+        return d[s.length][t.length];
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ *  Hybrid Feature Set Clustering
+ *  Copyright (C) 2018  Alexander Seeliger
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.processmining.plugins.hybridclusterminer.pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.deckfour.xes.factory.XFactory;
+import org.deckfour.xes.factory.XFactoryNaiveImpl;
+import org.deckfour.xes.model.XTrace;
+import org.junit.Test;
+import org.processmining.clustering.model.Variant;
+
+/**
+ * Compares the closed itemsets answered by {@link ClosedItemsetIndex} with mining every variant directly at the
+ * queried support.
+ */
+public class ClosedItemsetIndexTest {
+
+	private static final double MIN_SUPPORT = 0.05;
+
+	@Test
+	public void testSameItemsetsAsDirectMining() {
+		Random random = new Random(1);
+
+		for (int t = 0; t < 5; t++) {
+			TransactionDatabase database = randomDatabase(random, 20, 60, 5, 2 + random.nextInt(4));
+			ClosedItemsetIndex index = new ClosedItemsetIndex(database, MIN_SUPPORT);
+
+			for (int s = 0; s < 20; s++) {
+				// the searched supports and the thresholds where the relative support changes
+				double minSupport = s < 12 ? MIN_SUPPORT + s * 0.05 : MIN_SUPPORT + random.nextDouble() * 0.55;
+
+				for (Variant variant : database.getVariants()) {
+					Collection<FrequentItemset> expected = new FrequentPatternMiner()
+							.extractFrequentItemsets(database.getTransactions(variant), minSupport);
+
+					assertEquals("support " + minSupport, toMap(expected),
+							toMap(index.getFrequentItemsets(variant, minSupport)));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testCovers() {
+		TransactionDatabase database = randomDatabase(new Random(2), 2, 10, 3, 2);
+		ClosedItemsetIndex index = new ClosedItemsetIndex(database, MIN_SUPPORT);
+
+		assertFalse(index.covers(MIN_SUPPORT / 2));
+		assertEquals(MIN_SUPPORT, index.getMinSupport(), 0);
+	}
+
+	/**
+	 * Returns the supports of the given itemsets by their items.
+	 */
+	private static Map<Set<Integer>, Double> toMap(Collection<FrequentItemset> itemsets) {
+		Map<Set<Integer>, Double> map = new HashMap<>();
+		for (FrequentItemset itemset : itemsets) {
+			map.put(new HashSet<>(itemset), itemset.getSupport());
+		}
+		return map;
+	}
+
+	/**
+	 * Returns the transaction database of random variants whose traces have the given number of categorical
+	 * attributes with few values each, so that many itemsets are frequent and share their support.
+	 */
+	private static TransactionDatabase randomDatabase(Random random, int variants, int maxTraces, int attributes,
+			int values) {
+		XFactory factory = new XFactoryNaiveImpl();
+		List<String> categorical = new ArrayList<>();
+		for (int a = 0; a < attributes; a++) {
+			categorical.add("attribute" + a);
+		}
+
+		Map<Variant, List<XTrace>> variantTraceMap = new HashMap<>();
+		for (int v = 0; v < variants; v++) {
+			List<XTrace> traces = new ArrayList<>();
+			int numTraces = 1 + random.nextInt(maxTraces);
+
+			for (int i = 0; i < numTraces; i++) {
+				XTrace trace = factory.createTrace();
+				for (String attribute : categorical) {
+					// attributes are missing in some traces
+					if (random.nextInt(5) > 0) {
+						trace.getAttributes().put(attribute,
+								factory.createAttributeLiteral(attribute, "v" + random.nextInt(values), null));
+					}
+				}
+				traces.add(trace);
+			}
+
+			variantTraceMap.put(new Variant(new int[] { v }).withId(v), traces);
+		}
+
+		return TransactionDatabase.build(variantTraceMap, categorical);
+	}
+
+}